@@ -0,0 +1,186 @@
+package com.example.isbn;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the ISBN validation paths on the same mix of records. Every
+ * invocation checks RECORDS records, so Throughput reads as records per second.
+ * Invalid records are split evenly between a wrong check digit, a missing
+ * digit and a letter in place of a digit.
+ *
+ * The batch benchmark only uses the Vector API kernel when the JVM has the
+ * incubator module, e.g.
+ * {@code java -jar target/benchmarks.jar -jvmArgsAppend --add-modules=jdk.incubator.vector -p validFraction=0.95,0.5}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ISBNValidationBenchmark {
+
+	private static final int RECORDS = 1 << 20;
+
+	// Share of valid records; vendor feeds run at about 0.95
+	@Param({"0.95"})
+	private double validFraction;
+
+	@Param({"13", "10"})
+	private int length;
+
+	private final ValidateISBN validator = new ValidateISBN();
+	private final ISBNNormalizer normalizer = new ISBNNormalizer();
+	private final ISBNBatchValidator scalarBatch = new ISBNBatchValidator();
+	private ISBNBatchValidator batch;
+	private String[] isbns;
+	// The same records at a fixed width of length + 1, short ones padded with spaces
+	private byte[] records;
+	private ValidateISBN.Result[] results;
+	private byte[] normalized;
+	private Path file;
+	private Path rejects;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		Random random = new Random(17);
+		isbns = new String[RECORDS];
+		int stride = length + 1;
+		records = new byte[RECORDS * stride];
+		Arrays.fill(records, (byte) ' ');
+		StringBuilder lines = new StringBuilder(RECORDS * stride);
+		for (int i = 0; i < RECORDS; i++) {
+			String isbn = validISBN(random);
+			if (random.nextDouble() >= validFraction) {
+				isbn = corrupt(isbn, random);
+			}
+			isbns[i] = isbn;
+			byte[] bytes = isbn.getBytes(StandardCharsets.US_ASCII);
+			System.arraycopy(bytes, 0, records, i * stride, bytes.length);
+			records[i * stride + length] = '\n';
+			lines.append(isbn).append('\n');
+		}
+		batch = ISBNBatchValidator.create();
+		results = new ValidateISBN.Result[RECORDS];
+		normalized = new byte[13];
+		file = Files.createTempFile("isbns", ".txt");
+		rejects = Files.createTempFile("rejects", ".txt");
+		Files.write(file, lines.toString().getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(rejects);
+	}
+
+	// Throws for every record of the wrong length or with a non-digit
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public void checkISBN(Blackhole blackhole) {
+		for (String isbn : isbns) {
+			try {
+				blackhole.consume(validator.checkISBN(isbn));
+			} catch (NumberFormatException e) {
+				blackhole.consume(e);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public void validate(Blackhole blackhole) {
+		for (String isbn : isbns) {
+			blackhole.consume(validator.validate(isbn));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public void validateBytes(Blackhole blackhole) {
+		int stride = length + 1;
+		for (int i = 0; i < RECORDS; i++) {
+			blackhole.consume(validator.validate(records, i * stride, length));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public ValidateISBN.Result[] batch() {
+		batch.validate(records, 0, length + 1, RECORDS, length, results);
+		return results;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public ValidateISBN.Result[] batchScalar() {
+		scalarBatch.validate(records, 0, length + 1, RECORDS, length, results);
+		return results;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public void normalize(Blackhole blackhole) {
+		for (String isbn : isbns) {
+			blackhole.consume(normalizer.normalize(isbn, normalized, 0));
+		}
+	}
+
+	// Includes reading the file through the page cache and writing the rejects
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public BulkISBNValidator.Summary bulk() throws IOException {
+		return new BulkISBNValidator(validator).validateFile(file, rejects);
+	}
+
+	private String validISBN(Random random) {
+		char[] digits = new char[length];
+		for (int i = 0; i < length - 1; i++) {
+			digits[i] = (char) ('0' + random.nextInt(10));
+		}
+		String check = length == 13 ? "0123456789" : "0123456789X";
+		for (int i = 0; i < check.length(); i++) {
+			digits[length - 1] = check.charAt(i);
+			if (validator.validate(new String(digits)) == ValidateISBN.Result.VALID) {
+				break;
+			}
+		}
+		return new String(digits);
+	}
+
+	private String corrupt(String isbn, Random random) {
+		char[] digits = isbn.toCharArray();
+		switch (random.nextInt(3)) {
+			case 0:
+				digits[0] = digits[0] == '9' ? '0' : (char) (digits[0] + 1);
+				return new String(digits);
+			case 1:
+				return isbn.substring(0, length - 1);
+			default:
+				digits[random.nextInt(length - 1)] = 'O';
+				return new String(digits);
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package com.example.isbn;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Validates a file of one ISBN per line. The file is memory-mapped and split
+ * into chunks at line boundaries, and the chunks are validated in parallel
+ * straight from the mapping with {@link ValidateISBN#validate(ByteBuffer, int, int)},
+ * so no String or other per-line object is created. Rejected lines are
+ * written to an output file as "line number,reason", in line order. Only a
+ * bounded number of chunks are mapped or waiting to be written at any time,
+ * so memory use does not grow with the size of the file.
+ */
+public class BulkISBNValidator {
+
+	// Chunks stay well below the 2 GiB limit of a single mapping
+	private static final long MAX_CHUNK_SIZE = 64L << 20;
+	private static final long MIN_CHUNK_SIZE = 1L << 20;
+	// Chunks per thread, so a slow chunk does not leave the other threads idle at the end
+	private static final int CHUNKS_PER_THREAD = 4;
+	// Chunks per thread submitted ahead of the one being written
+	private static final int LOOKAHEAD_PER_THREAD = 2;
+	private static final ValidateISBN.Result[] REJECT_REASONS = ValidateISBN.Result.values();
+	// ASCII name of each result, indexed by ordinal
+	private static final byte[][] REASONS = reasonBytes();
+
+	/**
+	 * Totals for one file.
+	 */
+	public static class Summary {
+		private final long lines;
+		private final long rejected;
+		private final long nanos;
+
+		Summary(long lines, long rejected, long nanos) {
+			this.lines = lines;
+			this.rejected = rejected;
+			this.nanos = nanos;
+		}
+
+		public long getLines() {
+			return lines;
+		}
+
+		public long getRejected() {
+			return rejected;
+		}
+
+		public long getNanos() {
+			return nanos;
+		}
+
+		public double getLinesPerSecond() {
+			return nanos == 0 ? 0 : lines * 1e9 / nanos;
+		}
+	}
+
+	private final ValidateISBN validator;
+	private final Executor executor;
+	private final int parallelism;
+
+	public BulkISBNValidator(ValidateISBN validator) {
+		this(validator, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * @param executor    runs one task per chunk
+	 * @param parallelism number of threads behind the executor, used to size the chunks
+	 */
+	public BulkISBNValidator(ValidateISBN validator, Executor executor, int parallelism) {
+		this.validator = validator;
+		this.executor = executor;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Validate every line of input and write the rejected ones to rejects,
+	 * replacing any existing file. A trailing carriage return is ignored, so
+	 * files with Windows line endings validate the same way.
+	 */
+	public Summary validateFile(Path input, Path rejects) throws IOException {
+		long start = System.nanoTime();
+		try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+				OutputStream out = new BufferedOutputStream(Files.newOutputStream(rejects), 1 << 16)) {
+			Queue<CompletableFuture<ChunkResult>> inFlight = new ArrayDeque<>();
+			long[] bounds = chunkBounds(channel);
+			int lookahead = Math.max(1, parallelism * LOOKAHEAD_PER_THREAD);
+			int next = 0;
+
+			// Chunks are written in order as they complete, offsetting their local line numbers
+			long lines = 0;
+			long rejected = 0;
+			byte[] digits = new byte[20];
+			try {
+				while (true) {
+					while (inFlight.size() < lookahead && next + 1 < bounds.length) {
+						MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, bounds[next], bounds[next + 1] - bounds[next]);
+						inFlight.add(CompletableFuture.supplyAsync(() -> validateChunk(buffer), executor));
+						next++;
+					}
+					CompletableFuture<ChunkResult> chunk = inFlight.poll();
+					if (chunk == null) {
+						break;
+					}
+					ChunkResult result;
+					try {
+						result = chunk.join();
+					} catch (CompletionException e) {
+						throw new IOException("Error validating " + input, e.getCause());
+					}
+					for (int i = 0; i < result.size; i++) {
+						long entry = result.rejects[i];
+						writeReject(out, lines + (entry >>> 8) + 1, REJECT_REASONS[(int) (entry & 0xFF)], digits);
+					}
+					lines += result.lines;
+					rejected += result.size;
+				}
+			} finally {
+				inFlight.forEach(future -> future.cancel(false));
+			}
+			return new Summary(lines, rejected, System.nanoTime() - start);
+		}
+	}
+
+	// Rejected lines of one chunk, each packed as (local line index << 8) | reason ordinal
+	private static class ChunkResult {
+		long lines;
+		long[] rejects = new long[64];
+		int size;
+
+		void reject(long line, ValidateISBN.Result reason) {
+			if (size == rejects.length) {
+				rejects = Arrays.copyOf(rejects, size * 2);
+			}
+			rejects[size++] = (line << 8) | reason.ordinal();
+		}
+	}
+
+	private ChunkResult validateChunk(ByteBuffer buffer) {
+		ChunkResult result = new ChunkResult();
+		int limit = buffer.limit();
+		int lineStart = 0;
+		while (lineStart < limit) {
+			int lineEnd = lineStart;
+			while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			int length = lineEnd - lineStart;
+			if (length > 0 && buffer.get(lineEnd - 1) == '\r') {
+				length--;
+			}
+			ValidateISBN.Result reason = validator.validate(buffer, lineStart, length);
+			if (reason != ValidateISBN.Result.VALID) {
+				result.reject(result.lines, reason);
+			}
+			result.lines++;
+			lineStart = lineEnd + 1;
+		}
+		return result;
+	}
+
+	// Chunk boundaries, each just past a newline, from 0 to the file size
+	private long[] chunkBounds(FileChannel channel) throws IOException {
+		long size = channel.size();
+		long target = size / ((long) parallelism * CHUNKS_PER_THREAD);
+		target = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, target));
+
+		List<Long> bounds = new ArrayList<>();
+		bounds.add(0L);
+		ByteBuffer probe = ByteBuffer.allocate(4096);
+		long position = 0;
+		while (size - position > target) {
+			long next = nextLineStart(channel, position + target, size, probe);
+			if (next - position > Integer.MAX_VALUE) {
+				throw new IOException("Line starting near byte " + (position + target) + " is too long");
+			}
+			bounds.add(next);
+			position = next;
+		}
+		if (position < size) {
+			bounds.add(size);
+		}
+		long[] result = new long[bounds.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = bounds.get(i);
+		}
+		return result;
+	}
+
+	// Position just past the first newline at or after from, or size if there is none
+	private static long nextLineStart(FileChannel channel, long from, long size, ByteBuffer probe) throws IOException {
+		long position = from;
+		while (position < size) {
+			probe.clear();
+			int read = channel.read(probe, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (probe.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	// One line of a rejects file, "line number,reason"; digits is scratch space of at least 19 bytes
+	static void writeReject(OutputStream out, long line, ValidateISBN.Result reason, byte[] digits) throws IOException {
+		writeDecimal(out, line, digits);
+		out.write(',');
+		out.write(REASONS[reason.ordinal()]);
+		out.write('\n');
+	}
+
+	private static void writeDecimal(OutputStream out, long value, byte[] digits) throws IOException {
+		int start = digits.length;
+		do {
+			digits[--start] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while (value != 0);
+		out.write(digits, start, digits.length - start);
+	}
+
+	private static byte[][] reasonBytes() {
+		ValidateISBN.Result[] results = ValidateISBN.Result.values();
+		byte[][] names = new byte[results.length][];
+		for (int i = 0; i < results.length; i++) {
+			names[i] = results[i].name().getBytes(StandardCharsets.US_ASCII);
+		}
+		return names;
+	}
+}
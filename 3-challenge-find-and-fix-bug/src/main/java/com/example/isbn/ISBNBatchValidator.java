@@ -0,0 +1,56 @@
+package com.example.isbn;
+
+/**
+ * Validates batches of fixed-width ISBN records held in a byte array, such as
+ * the rows of a fixed-width catalogue extract. Record r starts at
+ * offset + r * stride and its first length bytes are the ISBN.
+ *
+ * This class checks one record at a time. {@link #create()} returns the
+ * Vector API kernel instead when it was built (the Java 21 profile) and the
+ * jdk.incubator.vector module is available at run time.
+ */
+public class ISBNBatchValidator {
+
+	private static final String VECTOR_IMPLEMENTATION = "com.example.isbn.VectorISBNBatchValidator";
+
+	private final ValidateISBN validator = new ValidateISBN();
+
+	/**
+	 * The fastest implementation available in this JVM.
+	 */
+	public static ISBNBatchValidator create() {
+		try {
+			return (ISBNBatchValidator) Class.forName(VECTOR_IMPLEMENTATION).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			// Not compiled in, or started without --add-modules jdk.incubator.vector
+			return new ISBNBatchValidator();
+		}
+	}
+
+	public boolean isVectorized() {
+		return false;
+	}
+
+	/**
+	 * Validate count records, storing the result of record r in results[r].
+	 *
+	 * @param length 10 for ISBN-10 records, 13 for ISBN-13 records
+	 */
+	public void validate(byte[] data, int offset, int stride, int count, int length, ValidateISBN.Result[] results) {
+		if (length != 10 && length != 13) {
+			throw new IllegalArgumentException("Record length must be 10 or 13");
+		}
+		if (stride < length) {
+			throw new IllegalArgumentException("Stride must be at least the record length");
+		}
+		validateRange(data, offset, stride, 0, count, length, results);
+	}
+
+	// Records from to to, one at a time; also the tail of a vectorised batch
+	protected final void validateRange(byte[] data, int offset, int stride, int from, int to, int length,
+			ValidateISBN.Result[] results) {
+		for (int r = from; r < to; r++) {
+			results[r] = validator.validate(data, offset + r * stride, length);
+		}
+	}
+}
@@ -0,0 +1,299 @@
+package com.example.isbn;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Set of ISBN-13s held off the Java heap, for catalogue-sized membership
+ * checks. Each ISBN is packed into a long (its 13 digits read as a decimal
+ * number) and stored in an open-addressing hash table with linear probing,
+ * split over direct buffers of at most 1 GiB. 200 million ISBNs take about
+ * 2 GiB of direct memory, so -XX:MaxDirectMemorySize may need raising.
+ *
+ * An optional blocked Bloom filter sits in front of the table. All the bits
+ * for one ISBN are in one 64-bit word, so a miss usually costs one memory
+ * access into the much smaller filter instead of a probe into the table.
+ * The filter is sized for as many ISBNs as the table holds before it grows,
+ * and is rebuilt at the new size whenever the table grows.
+ *
+ * Adding is single-threaded; once built, contains may be called from any
+ * number of threads.
+ */
+public class ISBNIndex {
+
+	private static final int LONG_ISBN_LENGTH = 13;
+	// 2^27 slots of 8 bytes, 1 GiB per buffer
+	private static final int SEGMENT_BITS = 27;
+	private static final int SEGMENT_SLOTS = 1 << SEGMENT_BITS;
+	private static final double MAX_LOAD = 0.75;
+	// Bloom filter bits per expected ISBN and bits set per ISBN, about 1% false positives when blocked
+	private static final int BLOOM_BITS_PER_KEY = 12;
+	private static final int BLOOM_HASHES = 6;
+	// Slots hold packed + 1, so that 0 marks an empty slot
+	private static final long EMPTY = 0;
+
+	private LongBuffer[] segments;
+	private long capacity;
+	private long size;
+	private final boolean bloomFilter;
+	private LongBuffer bloom;
+	private long bloomMask;
+
+	/**
+	 * @param expectedSize number of ISBNs the table is sized for; it grows past that if needed
+	 * @param bloomFilter  whether to put a Bloom filter in front of the table
+	 */
+	public ISBNIndex(long expectedSize, boolean bloomFilter) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("Expected size must not be negative");
+		}
+		this.bloomFilter = bloomFilter;
+		allocate(tableSize(expectedSize));
+	}
+
+	/**
+	 * Build an index from a file of one ISBN-13 per line. Lines that are not
+	 * valid ISBN-13s are skipped.
+	 */
+	public static ISBNIndex build(Path file, boolean bloomFilter) throws IOException {
+		ValidateISBN validator = new ValidateISBN();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			// 14 bytes per line with its newline
+			ISBNIndex index = new ISBNIndex(fileSize / (LONG_ISBN_LENGTH + 1), bloomFilter);
+			long position = 0;
+			while (position < fileSize) {
+				long length = Math.min(Integer.MAX_VALUE, fileSize - position);
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				int limit = buffer.limit();
+				int lineStart = 0;
+				int lineEnd = 0;
+				while (true) {
+					while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+						lineEnd++;
+					}
+					// A line cut off by the end of the mapping is read again from the next one
+					if (lineEnd == limit && position + limit < fileSize) {
+						break;
+					}
+					int lineLength = lineEnd - lineStart;
+					if (lineLength > 0 && buffer.get(lineEnd - 1) == '\r') {
+						lineLength--;
+					}
+					if (lineLength == LONG_ISBN_LENGTH
+							&& validator.validate(buffer, lineStart, lineLength) == ValidateISBN.Result.VALID) {
+						index.add(pack(buffer, lineStart));
+					}
+					lineStart = ++lineEnd;
+					if (lineStart >= limit) {
+						break;
+					}
+				}
+				if (lineStart == 0) {
+					throw new IOException("Line starting at byte " + position + " is too long");
+				}
+				position += lineStart;
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * The 13 digits of an ISBN-13 as a number, or -1 if it is not 13 digits.
+	 * The check digit is not verified.
+	 */
+	public static long pack(CharSequence isbn) {
+		if (isbn.length() != LONG_ISBN_LENGTH) {
+			return -1;
+		}
+		long packed = 0;
+		for (int i = 0; i < LONG_ISBN_LENGTH; i++) {
+			int digit = isbn.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			packed = packed * 10 + digit;
+		}
+		return packed;
+	}
+
+	/**
+	 * Pack the 13 ASCII digits at buffer[offset], or -1 if they are not all digits.
+	 */
+	public static long pack(ByteBuffer buffer, int offset) {
+		long packed = 0;
+		for (int i = 0; i < LONG_ISBN_LENGTH; i++) {
+			int digit = buffer.get(offset + i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			packed = packed * 10 + digit;
+		}
+		return packed;
+	}
+
+	/**
+	 * @return true if the ISBN was not in the index before
+	 */
+	public boolean add(long packed) {
+		checkPacked(packed);
+		if (size + 1 > capacity * MAX_LOAD) {
+			resize(capacity * 2);
+		}
+		long hash = mix(packed);
+		addToBloom(hash);
+		if (insert(packed + 1, hash)) {
+			size++;
+			return true;
+		}
+		return false;
+	}
+
+	public boolean contains(long packed) {
+		if (packed < 0) {
+			return false;
+		}
+		long hash = mix(packed);
+		if (!bloomHit(hash)) {
+			return false;
+		}
+		long stored = packed + 1;
+		long mask = capacity - 1;
+		for (long slot = hash & mask; ; slot = (slot + 1) & mask) {
+			long value = get(slot);
+			if (value == stored) {
+				return true;
+			}
+			if (value == EMPTY) {
+				return false;
+			}
+		}
+	}
+
+	public boolean contains(CharSequence isbn) {
+		return contains(pack(isbn));
+	}
+
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Whether the Bloom filter lets a lookup through to the table; always true without a filter.
+	 */
+	boolean bloomMayContain(long packed) {
+		return packed >= 0 && bloomHit(mix(packed));
+	}
+
+	private boolean bloomHit(long hash) {
+		if (bloom == null) {
+			return true;
+		}
+		long bits = bloomBits(hash);
+		return (bloom.get((int) (hash & bloomMask)) & bits) == bits;
+	}
+
+	private boolean insert(long stored, long hash) {
+		long mask = capacity - 1;
+		for (long slot = hash & mask; ; slot = (slot + 1) & mask) {
+			long value = get(slot);
+			if (value == stored) {
+				return false;
+			}
+			if (value == EMPTY) {
+				set(slot, stored);
+				return true;
+			}
+		}
+	}
+
+	private void resize(long newCapacity) {
+		LongBuffer[] old = segments;
+		allocate(newCapacity);
+		for (LongBuffer segment : old) {
+			for (int i = 0; i < segment.capacity(); i++) {
+				long stored = segment.get(i);
+				if (stored != EMPTY) {
+					long hash = mix(stored - 1);
+					addToBloom(hash);
+					insert(stored, hash);
+				}
+			}
+		}
+	}
+
+	// An empty table of the given size, and an empty filter for the ISBNs it can hold before growing
+	private void allocate(long slots) {
+		capacity = slots;
+		int count = (int) Math.max(1, slots >>> SEGMENT_BITS);
+		segments = new LongBuffer[count];
+		for (int i = 0; i < count; i++) {
+			segments[i] = allocateLongs(Math.min(slots, SEGMENT_SLOTS));
+		}
+		if (bloomFilter) {
+			long keys = (long) (slots * MAX_LOAD);
+			long words = powerOfTwoAtLeast(Math.min(SEGMENT_SLOTS, keys * BLOOM_BITS_PER_KEY / 64));
+			bloom = allocateLongs(words);
+			bloomMask = words - 1;
+		}
+	}
+
+	private void addToBloom(long hash) {
+		if (bloom != null) {
+			int word = (int) (hash & bloomMask);
+			bloom.put(word, bloom.get(word) | bloomBits(hash));
+		}
+	}
+
+	private long get(long slot) {
+		return segments[(int) (slot >>> SEGMENT_BITS)].get((int) (slot & (SEGMENT_SLOTS - 1)));
+	}
+
+	private void set(long slot, long value) {
+		segments[(int) (slot >>> SEGMENT_BITS)].put((int) (slot & (SEGMENT_SLOTS - 1)), value);
+	}
+
+	// The word is chosen by the low bits of the hash, the bits within it by six 6-bit slices of the high bits
+	private static long bloomBits(long hash) {
+		long bits = 0;
+		for (int i = 0; i < BLOOM_HASHES; i++) {
+			bits |= 1L << (hash >>> (64 - 6 * (i + 1)));
+		}
+		return bits;
+	}
+
+	private static void checkPacked(long packed) {
+		if (packed < 0 || packed >= 10_000_000_000_000L) {
+			throw new IllegalArgumentException("Not a packed ISBN-13: " + packed);
+		}
+	}
+
+	// Slots for expectedSize entries below the maximum load, a power of two
+	private static long tableSize(long expectedSize) {
+		return powerOfTwoAtLeast(Math.max(16, (long) Math.ceil(expectedSize / MAX_LOAD) + 1));
+	}
+
+	private static long powerOfTwoAtLeast(long n) {
+		return n <= 1 ? 1 : Long.highestOneBit(n - 1) << 1;
+	}
+
+	private static LongBuffer allocateLongs(long count) {
+		return ByteBuffer.allocateDirect((int) (count * Long.BYTES)).order(ByteOrder.nativeOrder()).asLongBuffer();
+	}
+
+	// Finalizer of MurmurHash3, so consecutive ISBNs spread over the table
+	private static long mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return key;
+	}
+}
@@ -0,0 +1,207 @@
+package com.example.isbn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Turns vendor ISBNs such as "978-1-85326-008-7" or "1 85326 008 X" into
+ * canonical ISBN-13s in one pass, without regular expressions or
+ * intermediate Strings. Hyphens and spaces are skipped, the remaining
+ * characters are validated as an ISBN-10 or ISBN-13 as they are read, and
+ * the ISBN-13 is written into a buffer supplied by the caller. ISBN-10s get
+ * the 978 prefix and a recomputed check digit. A bad character is reported
+ * as soon as it is read, so it takes precedence over a wrong length.
+ *
+ * The scan state lives in the normalizer, so use one instance per thread.
+ */
+public class ISBNNormalizer {
+
+	private static final int SHORT_ISBN_LENGTH = 10;
+	private static final int LONG_ISBN_LENGTH = 13;
+	private static final int SHORT_ISBN_MULTIPLIER = 11;
+	private static final int LONG_ISBN_MULTIPLIER = 10;
+	private static final byte[] ISBN_10_PREFIX = {'9', '7', '8'};
+	// Weighted sum of the 978 prefix within an ISBN-13
+	private static final int ISBN_10_PREFIX_SUM = 9 + 7 * 3 + 8;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	// State of the record being scanned
+	private byte[] out;
+	private int outOffset;
+	private int count;
+	private int shortTotal;
+	private int longTotal;
+	// ISBN-13 weighted sum of the first nine digits as they will sit after the 978 prefix
+	private int convertedTotal;
+	private boolean checkDigitX;
+	private ValidateISBN.Result error;
+
+	/**
+	 * Normalize one ISBN, writing the 13 ASCII digits of its ISBN-13 to
+	 * out[outOffset] if the result is VALID. Otherwise the contents of those
+	 * 13 bytes are undefined.
+	 */
+	public ValidateISBN.Result normalize(CharSequence isbn, byte[] out, int outOffset) {
+		begin(out, outOffset);
+		for (int i = 0, length = isbn.length(); i < length && error == null; i++) {
+			accept(isbn.charAt(i));
+		}
+		return finish();
+	}
+
+	/**
+	 * Normalize the ASCII ISBN in bytes[offset, offset + length); see
+	 * {@link #normalize(CharSequence, byte[], int)}.
+	 */
+	public ValidateISBN.Result normalize(byte[] bytes, int offset, int length, byte[] out, int outOffset) {
+		begin(out, outOffset);
+		for (int i = offset, end = offset + length; i < end && error == null; i++) {
+			accept(bytes[i]);
+		}
+		return finish();
+	}
+
+	/**
+	 * Normalize a stream of newline separated ISBNs. Each valid one is written
+	 * to out as an ISBN-13 line; each invalid one is written to rejects as
+	 * "line number,reason", as by {@link BulkISBNValidator}. Neither stream is
+	 * buffered or closed here.
+	 */
+	public BulkISBNValidator.Summary normalizeLines(InputStream in, OutputStream out, OutputStream rejects)
+			throws IOException {
+		long start = System.nanoTime();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		byte[] isbn = new byte[LONG_ISBN_LENGTH + 1];
+		isbn[LONG_ISBN_LENGTH] = '\n';
+		byte[] digits = new byte[20];
+		long lines = 0;
+		long rejected = 0;
+		int filled = 0;
+		int scanned = 0;
+		// Set while skipping the rest of a line longer than the buffer
+		boolean overlong = false;
+
+		while (true) {
+			int read = in.read(buffer, filled, buffer.length - filled);
+			boolean end = read < 0;
+			if (!end) {
+				filled += read;
+			}
+			int lineStart = 0;
+			for (int i = scanned; i < filled; i++) {
+				if (buffer[i] == '\n') {
+					if (!write(buffer, lineStart, i, overlong, ++lines, isbn, digits, out, rejects)) {
+						rejected++;
+					}
+					overlong = false;
+					lineStart = i + 1;
+				}
+			}
+			if (end) {
+				// A last line without a newline
+				if (lineStart < filled || overlong) {
+					if (!write(buffer, lineStart, filled, overlong, ++lines, isbn, digits, out, rejects)) {
+						rejected++;
+					}
+				}
+				return new BulkISBNValidator.Summary(lines, rejected, System.nanoTime() - start);
+			}
+			if (lineStart == 0 && filled == buffer.length) {
+				// No ISBN is anywhere near this long; drop what has been read of the line
+				overlong = true;
+				filled = 0;
+			} else {
+				filled -= lineStart;
+				System.arraycopy(buffer, lineStart, buffer, 0, filled);
+			}
+			scanned = filled;
+		}
+	}
+
+	// Normalize buffer[lineStart, lineEnd) and write it to out or rejects; false if it was rejected
+	private boolean write(byte[] buffer, int lineStart, int lineEnd, boolean overlong, long line, byte[] isbn,
+			byte[] digits, OutputStream out, OutputStream rejects) throws IOException {
+		ValidateISBN.Result result = overlong ? ValidateISBN.Result.BAD_LENGTH
+				: normalize(buffer, lineStart, trimmedLength(buffer, lineStart, lineEnd), isbn, 0);
+		if (result == ValidateISBN.Result.VALID) {
+			out.write(isbn);
+			return true;
+		}
+		BulkISBNValidator.writeReject(rejects, line, result, digits);
+		return false;
+	}
+
+	private static int trimmedLength(byte[] buffer, int lineStart, int lineEnd) {
+		int length = lineEnd - lineStart;
+		return length > 0 && buffer[lineEnd - 1] == '\r' ? length - 1 : length;
+	}
+
+	private void begin(byte[] out, int outOffset) {
+		this.out = out;
+		this.outOffset = outOffset;
+		count = 0;
+		shortTotal = 0;
+		longTotal = 0;
+		convertedTotal = 0;
+		checkDigitX = false;
+		error = null;
+	}
+
+	private void accept(int c) {
+		if (c == '-' || c == ' ') {
+			return;
+		}
+		if (count == LONG_ISBN_LENGTH) {
+			error = ValidateISBN.Result.BAD_LENGTH;
+			return;
+		}
+		if (checkDigitX) {
+			// Only the last character of an ISBN-10 may be X
+			error = ValidateISBN.Result.BAD_CHAR;
+			return;
+		}
+		int digit;
+		if (c >= '0' && c <= '9') {
+			digit = c - '0';
+		} else if (c == 'X' && count == SHORT_ISBN_LENGTH - 1) {
+			digit = 10;
+			checkDigitX = true;
+		} else {
+			error = ValidateISBN.Result.BAD_CHAR;
+			return;
+		}
+		if (count < SHORT_ISBN_LENGTH) {
+			shortTotal += digit * (SHORT_ISBN_LENGTH - count);
+		}
+		if (count < SHORT_ISBN_LENGTH - 1) {
+			// Digit i of an ISBN-10 lands on position i + 3 of the ISBN-13
+			convertedTotal += digit * ((count & 1) == 0 ? 3 : 1);
+		}
+		longTotal += digit * ((count & 1) == 0 ? 1 : 3);
+		// Written where an ISBN-13 digit belongs; an ISBN-10 is shifted into place at the end
+		out[outOffset + count] = (byte) c;
+		count++;
+	}
+
+	private ValidateISBN.Result finish() {
+		if (error != null) {
+			return error;
+		}
+		if (count == LONG_ISBN_LENGTH) {
+			return longTotal % LONG_ISBN_MULTIPLIER == 0 ? ValidateISBN.Result.VALID : ValidateISBN.Result.BAD_CHECKSUM;
+		}
+		if (count != SHORT_ISBN_LENGTH) {
+			return ValidateISBN.Result.BAD_LENGTH;
+		}
+		if (shortTotal % SHORT_ISBN_MULTIPLIER != 0) {
+			return ValidateISBN.Result.BAD_CHECKSUM;
+		}
+		System.arraycopy(out, outOffset, out, outOffset + ISBN_10_PREFIX.length, SHORT_ISBN_LENGTH - 1);
+		System.arraycopy(ISBN_10_PREFIX, 0, out, outOffset, ISBN_10_PREFIX.length);
+		int checkDigit = (LONG_ISBN_MULTIPLIER - (ISBN_10_PREFIX_SUM + convertedTotal) % LONG_ISBN_MULTIPLIER)
+				% LONG_ISBN_MULTIPLIER;
+		out[outOffset + LONG_ISBN_LENGTH - 1] = (byte) ('0' + checkDigit);
+		return ValidateISBN.Result.VALID;
+	}
+}
@@ -0,0 +1,20 @@
+package com.example.isbn;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class Main {
+    public static void main(String[] args) throws IOException {
+        ValidateISBN validator = new ValidateISBN();
+        if (args.length == 2) {
+            // Bulk mode: Main <file of ISBNs, one per line> <file for rejected lines>
+            BulkISBNValidator.Summary summary = new BulkISBNValidator(validator)
+                    .validateFile(Paths.get(args[0]), Paths.get(args[1]));
+            System.out.println("Lines: " + summary.getLines() + ", rejected: " + summary.getRejected());
+            System.out.printf("Lines per second: %.0f%n", summary.getLinesPerSecond());
+            return;
+        }
+        boolean result = validator.checkISBN("9781853260087");
+        System.out.println("Is the ISBN valid? " + result);
+    }
+}
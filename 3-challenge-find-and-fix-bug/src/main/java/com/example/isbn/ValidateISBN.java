@@ -0,0 +1,153 @@
+package com.example.isbn;
+
+import java.nio.ByteBuffer;
+
+public class ValidateISBN {
+
+	/**
+	 * Outcome of {@link #validate(CharSequence)} and its byte overloads.
+	 */
+	public enum Result {
+		VALID,
+		BAD_CHECKSUM,
+		BAD_LENGTH,
+		BAD_CHAR
+	}
+
+	private static final int LONG_ISBN_MULTIPLIER = 10;
+	private static final int SHORT_ISBN_MULTIPLIER = 11;
+	private static final int SHORT_ISBN_LENGTH = 10;
+	private static final int LONG_ISBN_LENGTH = 13;
+
+	public boolean checkISBN(String isbn) {
+
+		if (isbn.length() == LONG_ISBN_LENGTH) {
+			return isThisAValidLongISBN(isbn);
+		}
+		else if (isbn.length() == SHORT_ISBN_LENGTH) {
+			return isThisAValidShortISBN(isbn);			
+		}
+		throw new NumberFormatException("ISBN numbers must be 10 or 13 digits long");
+	}
+
+
+	/**
+	 * Validate an ISBN-10 or ISBN-13 without throwing or allocating, for bulk
+	 * input where invalid rows are routine. Only the check digit of an ISBN-10
+	 * may be 'X'.
+	 */
+	public Result validate(CharSequence isbn) {
+		int length = isbn.length();
+		if (length != SHORT_ISBN_LENGTH && length != LONG_ISBN_LENGTH) {
+			return Result.BAD_LENGTH;
+		}
+		int total = 0;
+		for (int i = 0; i < length; i++) {
+			int value = digitValue(isbn.charAt(i), length, i);
+			if (value < 0) {
+				return Result.BAD_CHAR;
+			}
+			total += value * weight(length, i);
+		}
+		return checksumResult(length, total);
+	}
+
+	/**
+	 * Validate the ASCII ISBN in bytes[offset, offset + length), so callers
+	 * reading raw records need not build a String per row.
+	 */
+	public Result validate(byte[] bytes, int offset, int length) {
+		if (length != SHORT_ISBN_LENGTH && length != LONG_ISBN_LENGTH) {
+			return Result.BAD_LENGTH;
+		}
+		int total = 0;
+		for (int i = 0; i < length; i++) {
+			int value = digitValue(bytes[offset + i], length, i);
+			if (value < 0) {
+				return Result.BAD_CHAR;
+			}
+			total += value * weight(length, i);
+		}
+		return checksumResult(length, total);
+	}
+
+	/**
+	 * Validate the ASCII ISBN at buffer[offset, offset + length) using absolute
+	 * reads, so the buffer's position and limit are left alone.
+	 */
+	public Result validate(ByteBuffer buffer, int offset, int length) {
+		if (length != SHORT_ISBN_LENGTH && length != LONG_ISBN_LENGTH) {
+			return Result.BAD_LENGTH;
+		}
+		int total = 0;
+		for (int i = 0; i < length; i++) {
+			int value = digitValue(buffer.get(offset + i), length, i);
+			if (value < 0) {
+				return Result.BAD_CHAR;
+			}
+			total += value * weight(length, i);
+		}
+		return checksumResult(length, total);
+	}
+
+	// Numeric value of character i of an ISBN of the given length, or -1 if it is not allowed there
+	private static int digitValue(int c, int length, int i) {
+		if (c >= '0' && c <= '9') {
+			return c - '0';
+		}
+		if (c == 'X' && length == SHORT_ISBN_LENGTH && i == SHORT_ISBN_LENGTH - 1) {
+			return 10;
+		}
+		return -1;
+	}
+
+	// ISBN-10 weights run from 10 down to 1, ISBN-13 weights alternate 1 and 3
+	private static int weight(int length, int i) {
+		if (length == SHORT_ISBN_LENGTH) {
+			return SHORT_ISBN_LENGTH - i;
+		}
+		return (i & 1) == 0 ? 1 : 3;
+	}
+
+	private static Result checksumResult(int length, int total) {
+		int multiplier = length == SHORT_ISBN_LENGTH ? SHORT_ISBN_MULTIPLIER : LONG_ISBN_MULTIPLIER;
+		return total % multiplier == 0 ? Result.VALID : Result.BAD_CHECKSUM;
+	}
+
+	private boolean isThisAValidShortISBN(String isbn) {
+		int total = 0;
+
+		for (int i = 0; i < SHORT_ISBN_LENGTH; i++)
+		{
+			if (!Character.isDigit(isbn.charAt(i))) {
+				if (i ==9 && isbn.charAt(i) == 'X') {
+					total += 10;
+				}
+				else {
+					throw new NumberFormatException("ISBN numbers can only contain numeric digits");
+				}
+			}
+			else {
+				total += isbn.charAt(i) * (SHORT_ISBN_LENGTH -i);
+			}
+		}
+
+		return (total % SHORT_ISBN_MULTIPLIER == 0);
+	}
+
+	private boolean isThisAValidLongISBN(String isbn) {
+		int total = 0;
+		
+		for (int i = 0; i < LONG_ISBN_LENGTH; i++) {
+			if (i % 2 == 0) {
+				total += isbn.charAt(i);
+			}
+			else {
+				total += isbn.charAt(i) * 3;
+			}
+		}
+		return (total % LONG_ISBN_MULTIPLIER == 0);
+	}
+
+	
+}
@@ -0,0 +1,75 @@
+package com.example.isbn;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernel for {@link ISBNBatchValidator}. Each record is loaded as
+ * one 16 byte vector; '0' is subtracted from every lane, the lanes past the
+ * ISBN are masked off the digit range check, and the weights are applied
+ * lane-wise before a single cross-lane sum. ISBN-13 totals fit in a byte
+ * (at most 225), ISBN-10 totals do not and are widened to shorts first.
+ *
+ * Only loaded through {@link ISBNBatchValidator#create()}, which falls back
+ * to the scalar code when jdk.incubator.vector is missing.
+ */
+public class VectorISBNBatchValidator extends ISBNBatchValidator {
+
+	private static final VectorSpecies<Byte> RECORD = ByteVector.SPECIES_128;
+	private static final int X_VALUE = 'X' - '0';
+	// Weights per lane, zero past the end of the ISBN
+	private static final byte[] LONG_WEIGHTS = {1, 3, 1, 3, 1, 3, 1, 3, 1, 3, 1, 3, 1, 0, 0, 0};
+	private static final byte[] SHORT_WEIGHTS = {10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0, 0, 0, 0, 0, 0};
+	// The check digit of an ISBN-10, the only place an X is allowed
+	private static final VectorMask<Byte> CHECK_LANE = VectorMask.fromLong(RECORD, 1L << 9);
+
+	@Override
+	public boolean isVectorized() {
+		return true;
+	}
+
+	@Override
+	public void validate(byte[] data, int offset, int stride, int count, int length, ValidateISBN.Result[] results) {
+		if (length != 10 && length != 13) {
+			throw new IllegalArgumentException("Record length must be 10 or 13");
+		}
+		if (stride < length) {
+			throw new IllegalArgumentException("Stride must be at least the record length");
+		}
+		boolean shortISBN = length == 10;
+		ByteVector weights = ByteVector.fromArray(RECORD, shortISBN ? SHORT_WEIGHTS : LONG_WEIGHTS, 0);
+		VectorMask<Byte> isbnLanes = RECORD.indexInRange(0, length);
+		// Records whose 16 byte load would run off the end of the array are left to the scalar loop.
+		// room is checked first: division truncates towards zero, so a small negative room would count one record
+		int room = data.length - offset - RECORD.length();
+		int vectorCount = room < 0 ? 0 : Math.min(count, room / stride + 1);
+
+		int r = 0;
+		for (; r < vectorCount; r++) {
+			ByteVector digits = ByteVector.fromArray(RECORD, data, offset + r * stride).sub((byte) '0');
+			VectorMask<Byte> badChar = digits.compare(VectorOperators.UNSIGNED_GT, 9, isbnLanes);
+			if (shortISBN) {
+				VectorMask<Byte> x = digits.compare(VectorOperators.EQ, X_VALUE, CHECK_LANE);
+				digits = digits.blend(10, x);
+				badChar = badChar.andNot(x);
+			}
+			if (badChar.anyTrue()) {
+				results[r] = ValidateISBN.Result.BAD_CHAR;
+				continue;
+			}
+			ByteVector products = digits.mul(weights);
+			int total;
+			if (shortISBN) {
+				total = ((ShortVector) products.convertShape(VectorOperators.B2S, ShortVector.SPECIES_256, 0))
+						.reduceLanes(VectorOperators.ADD);
+			} else {
+				total = products.reduceLanes(VectorOperators.ADD) & 0xFF;
+			}
+			results[r] = total % (shortISBN ? 11 : 10) == 0 ? ValidateISBN.Result.VALID : ValidateISBN.Result.BAD_CHECKSUM;
+		}
+		validateRange(data, offset, stride, r, count, length, results);
+	}
+}
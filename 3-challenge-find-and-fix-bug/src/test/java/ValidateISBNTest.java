@@ -1,66 +0,0 @@
-import static org.junit.jupiter.api.Assertions.*;
-
-import org.junit.jupiter.api.Test;
-
-class ValidateISBNTest {
-
-	@Test
-	public void checkAValid10DigitISBN() {
-		ValidateISBN validator = new ValidateISBN();
-		boolean result = validator.checkISBN("0140449116");
-		assertTrue(result,"first value");
-		result = validator.checkISBN("0140177396");
-		assertTrue(result, "second value");
-	}
-	
-	@Test
-	public void checkAValid13DigitISBN() {
-		ValidateISBN validator = new ValidateISBN();
-		boolean result = validator.checkISBN("9781853260087");
-		assertTrue(result,"first value");
-		result = validator.checkISBN("9781853267338");
-		assertTrue(result, "second value");
-	}
-	
-	@Test
-	public void TenDigitISBNNumbersEndingInAnXAreValid() {
-		ValidateISBN validator = new ValidateISBN();
-		boolean result = validator.checkISBN("012000030X");
-		assertFalse(result);
-	}
-
-	@Test
-	public void checkAnInvalid10DigitISBN() {
-		ValidateISBN validator = new ValidateISBN();
-		boolean result = validator.checkISBN("0140449117");
-		assertFalse(result);
-	}
-	
-	@Test
-	public void checkAnInvalid13DigitISBN() {
-		ValidateISBN validator = new ValidateISBN();
-		boolean result = validator.checkISBN("9781853267336");
-		assertFalse(result);
-	}
-	
-	@Test
-	public void nineDigitISBNsAreNotAllowed() {
-		ValidateISBN validator = new ValidateISBN();
-		assertThrows(NumberFormatException.class, 
-				() -> {
-					validator.checkISBN("123456789");
-				});
-	}
-	
-	@Test
-	public void nonNumericISBNsAreNotAllowed() {
-		ValidateISBN validator = new ValidateISBN();
-		assertThrows(NumberFormatException.class, 
-				() -> {
-					validator.checkISBN("helloworld");
-				});
-	}
-	
-	
-}
-
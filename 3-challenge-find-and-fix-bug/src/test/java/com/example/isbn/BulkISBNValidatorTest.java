@@ -0,0 +1,102 @@
+package com.example.isbn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BulkISBNValidatorTest {
+
+	private final ValidateISBN validator = new ValidateISBN();
+
+	@Test
+	public void writesRejectedLinesWithTheirReasons(@TempDir Path dir) throws IOException {
+		String[] lines = {"9781853260087", "0140449116", "123", "", "978185326008X\r", "0-14-044911-6", "014044911X"};
+		Path input = dir.resolve("isbns.txt");
+		// No newline after the last line
+		Files.write(input, String.join("\n", lines).getBytes(StandardCharsets.US_ASCII));
+		Path rejects = dir.resolve("rejects.txt");
+
+		BulkISBNValidator.Summary summary = new BulkISBNValidator(validator).validateFile(input, rejects);
+
+		StringBuilder expected = new StringBuilder();
+		int rejected = 0;
+		for (int i = 0; i < lines.length; i++) {
+			ValidateISBN.Result result = validator.validate(lines[i].replace("\r", ""));
+			if (result != ValidateISBN.Result.VALID) {
+				expected.append(i + 1).append(',').append(result.name()).append('\n');
+				rejected++;
+			}
+		}
+		assertEquals(expected.toString(), new String(Files.readAllBytes(rejects), StandardCharsets.US_ASCII));
+		assertEquals(lines.length, summary.getLines());
+		assertEquals(rejected, summary.getRejected());
+	}
+
+	@Test
+	public void emptyFileHasNoLines(@TempDir Path dir) throws IOException {
+		Path input = Files.createFile(dir.resolve("empty.txt"));
+		Path rejects = dir.resolve("rejects.txt");
+		BulkISBNValidator.Summary summary = new BulkISBNValidator(validator).validateFile(input, rejects);
+		assertEquals(0, summary.getLines());
+		assertEquals(0, Files.size(rejects));
+	}
+
+	@Test
+	public void largeFileKeepsOnlyAFewChunksInFlight(@TempDir Path dir) throws IOException {
+		// About 12 MiB, so that three threads' worth of chunks are still 1 MiB each
+		int count = 900_000;
+		byte[] valid = "9781853260087\n".getBytes(StandardCharsets.US_ASCII);
+		byte[] invalid = "9781853260088\n".getBytes(StandardCharsets.US_ASCII);
+		byte[] data = new byte[count * valid.length];
+		for (int i = 0; i < count; i++) {
+			System.arraycopy(i % 1000 == 999 ? invalid : valid, 0, data, i * valid.length, valid.length);
+		}
+		Path input = dir.resolve("isbns.txt");
+		Files.write(input, data);
+		Path rejects = dir.resolve("rejects.txt");
+
+		// One thread behind an executor claiming three, so submitted chunks pile up unless they are bounded
+		ExecutorService thread = Executors.newSingleThreadExecutor();
+		AtomicInteger outstanding = new AtomicInteger();
+		AtomicInteger maxOutstanding = new AtomicInteger();
+		AtomicInteger submitted = new AtomicInteger();
+		Executor counting = task -> {
+			submitted.incrementAndGet();
+			maxOutstanding.accumulateAndGet(outstanding.incrementAndGet(), Math::max);
+			thread.execute(() -> {
+				try {
+					task.run();
+				} finally {
+					outstanding.decrementAndGet();
+				}
+			});
+		};
+		BulkISBNValidator.Summary summary;
+		try {
+			summary = new BulkISBNValidator(validator, counting, 3).validateFile(input, rejects);
+		} finally {
+			thread.shutdown();
+		}
+
+		assertEquals(count, summary.getLines());
+		assertEquals(count / 1000, summary.getRejected());
+		assertTrue(submitted.get() >= 12, "chunks " + submitted.get());
+		// Two per thread, plus one whose result was taken before its task returned
+		assertTrue(maxOutstanding.get() <= 7, "chunks in flight " + maxOutstanding.get());
+		String[] written = new String(Files.readAllBytes(rejects), StandardCharsets.US_ASCII).split("\n");
+		assertEquals(count / 1000, written.length);
+		for (int i = 0; i < written.length; i++) {
+			assertEquals((i + 1) * 1000 + ",BAD_CHECKSUM", written[i]);
+		}
+	}
+}
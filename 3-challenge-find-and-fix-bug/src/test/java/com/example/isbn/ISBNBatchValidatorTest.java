@@ -0,0 +1,90 @@
+package com.example.isbn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ISBNBatchValidatorTest {
+
+	@Test
+	public void batchResultsMatchSingleValidation() {
+		ISBNBatchValidator batch = ISBNBatchValidator.create();
+		ValidateISBN validator = new ValidateISBN();
+		Random random = new Random(14);
+		for (int length : new int[] {10, 13}) {
+			int stride = length + 1;
+			int count = 1000;
+			byte[] data = new byte[count * stride];
+			for (int r = 0; r < count; r++) {
+				int offset = r * stride;
+				for (int i = 0; i < length; i++) {
+					data[offset + i] = (byte) ('0' + random.nextInt(10));
+				}
+				// Some records get a non-digit, some an X check digit
+				if (r % 7 == 0) {
+					data[offset + random.nextInt(length)] = (byte) random.nextInt(256);
+				} else if (r % 5 == 0) {
+					data[offset + length - 1] = 'X';
+				}
+				data[offset + length] = '\n';
+			}
+
+			ValidateISBN.Result[] results = new ValidateISBN.Result[count];
+			batch.validate(data, 0, stride, count, length, results);
+			for (int r = 0; r < count; r++) {
+				assertEquals(validator.validate(data, r * stride, length), results[r], "record " + r);
+			}
+		}
+	}
+
+	@Test
+	public void batchValidatesKnownISBNs() {
+		byte[] data = "9781853260087\n9781853267336\n97818532600X7\n".getBytes(StandardCharsets.US_ASCII);
+		ValidateISBN.Result[] results = new ValidateISBN.Result[3];
+		ISBNBatchValidator.create().validate(data, 0, 14, 3, 13, results);
+		assertArrayEquals(new ValidateISBN.Result[] {
+				ValidateISBN.Result.VALID, ValidateISBN.Result.BAD_CHECKSUM, ValidateISBN.Result.BAD_CHAR }, results);
+	}
+
+	@Test
+	public void shortBatchesEndingAtTheArrayEnd() {
+		ISBNBatchValidator batch = ISBNBatchValidator.create();
+		ValidateISBN validator = new ValidateISBN();
+		String[][] isbns = {
+				{"9781853260087", "9781853267336", "97818532600X7"},
+				{"0140449116", "014044911X", "0140449117"} };
+		for (String[] records : isbns) {
+			int length = records[0].length();
+			for (int stride = length; stride <= length + 1; stride++) {
+				for (int count = 1; count <= 3; count++) {
+					// No padding after the last record, so fewer than 16 bytes may follow a record's start
+					byte[] data = new byte[(count - 1) * stride + length];
+					for (int r = 0; r < count; r++) {
+						byte[] record = records[r].getBytes(StandardCharsets.US_ASCII);
+						System.arraycopy(record, 0, data, r * stride, length);
+						if (r + 1 < count && stride > length) {
+							data[r * stride + length] = '\n';
+						}
+					}
+					ValidateISBN.Result[] results = new ValidateISBN.Result[count];
+					batch.validate(data, 0, stride, count, length, results);
+					for (int r = 0; r < count; r++) {
+						assertEquals(validator.validate(records[r]), results[r],
+								count + " records of stride " + stride + ", record " + r);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void recordLengthMustBeAnISBNLength() {
+		assertThrows(IllegalArgumentException.class,
+				() -> {
+					ISBNBatchValidator.create().validate(new byte[24], 0, 12, 2, 12, new ValidateISBN.Result[2]);
+				});
+	}
+}
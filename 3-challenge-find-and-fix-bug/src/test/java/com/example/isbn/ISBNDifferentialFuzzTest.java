@@ -0,0 +1,214 @@
+package com.example.isbn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks every optimised validation path against a plain reference on random
+ * input. Run longer or with another seed with
+ * {@code mvn test -Dtest=ISBNDifferentialFuzzTest -Disbn.fuzz.iterations=10000000 -Disbn.fuzz.seed=42}.
+ */
+class ISBNDifferentialFuzzTest {
+
+	private static final int ITERATIONS = Integer.getInteger("isbn.fuzz.iterations", 200_000);
+	private static final long SEED = Long.getLong("isbn.fuzz.seed", 20261017L);
+	// Digits are likelier than anything else so that lengths of 10 and 13 come up often
+	private static final String ALPHABET = "01234567890123456789X- a/";
+
+	private final ValidateISBN validator = new ValidateISBN();
+
+	@Test
+	public void singleValuePathsAgreeWithTheReference() {
+		Random random = new Random(SEED);
+		ISBNNormalizer normalizer = new ISBNNormalizer();
+		byte[] normalized = new byte[13];
+		for (int i = 0; i < ITERATIONS; i++) {
+			String isbn = randomInput(random);
+			String context = "input \"" + isbn + "\", seed " + SEED;
+			ValidateISBN.Result expected = reference(isbn);
+
+			assertEquals(expected, validator.validate(isbn), context);
+			byte[] bytes = ("#" + isbn + "#").getBytes(StandardCharsets.US_ASCII);
+			assertEquals(expected, validator.validate(bytes, 1, isbn.length()), context);
+			assertEquals(expected, validator.validate(ByteBuffer.wrap(bytes), 1, isbn.length()), context);
+			assertAgreesWithCheckISBN(isbn, expected, context);
+
+			// The normaliser reports a bad character before a bad length, so only validity and output are compared
+			String stripped = isbn.replace("-", "").replace(" ", "");
+			boolean valid = reference(stripped) == ValidateISBN.Result.VALID;
+			ValidateISBN.Result result = normalizer.normalize(isbn, normalized, 0);
+			assertEquals(valid, result == ValidateISBN.Result.VALID, context);
+			if (valid) {
+				assertEquals(toISBN13(stripped), new String(normalized, StandardCharsets.US_ASCII), context);
+			}
+
+			if (isbn.matches("[0-9]{13}")) {
+				assertEquals(Long.parseLong(isbn), ISBNIndex.pack(isbn), context);
+			}
+		}
+	}
+
+	@Test
+	public void batchAgreesWithTheReference() {
+		Random random = new Random(SEED);
+		ISBNBatchValidator batch = ISBNBatchValidator.create();
+		for (int length : new int[] {10, 13}) {
+			int count = ITERATIONS / 10;
+			int stride = length + 1;
+			byte[] records = new byte[count * stride];
+			String[] isbns = new String[count];
+			for (int r = 0; r < count; r++) {
+				String isbn = randomInput(random, length);
+				isbns[r] = isbn;
+				System.arraycopy(isbn.getBytes(StandardCharsets.US_ASCII), 0, records, r * stride, length);
+				records[r * stride + length] = '\n';
+			}
+			ValidateISBN.Result[] results = new ValidateISBN.Result[count];
+			batch.validate(records, 0, stride, count, length, results);
+			for (int r = 0; r < count; r++) {
+				String context = "input \"" + isbns[r] + "\", seed " + SEED;
+				assertEquals(reference(isbns[r]), results[r], context);
+				assertAgreesWithCheckISBN(isbns[r], results[r], context);
+			}
+		}
+	}
+
+	@Test
+	public void shortBatchesAgreeWithTheReference() {
+		Random random = new Random(SEED);
+		ISBNBatchValidator batch = ISBNBatchValidator.create();
+		for (int i = 0; i < ITERATIONS / 10; i++) {
+			int length = random.nextBoolean() ? 10 : 13;
+			int count = random.nextInt(4);
+			int stride = length + random.nextInt(3);
+			int offset = random.nextInt(4);
+			// The last record ends the array, as in a file without a trailing newline
+			byte[] records = new byte[count == 0 ? offset : offset + (count - 1) * stride + length];
+			String[] isbns = new String[count];
+			for (int r = 0; r < count; r++) {
+				isbns[r] = randomInput(random, length);
+				System.arraycopy(isbns[r].getBytes(StandardCharsets.US_ASCII), 0, records, offset + r * stride, length);
+			}
+			ValidateISBN.Result[] results = new ValidateISBN.Result[count];
+			batch.validate(records, offset, stride, count, length, results);
+			for (int r = 0; r < count; r++) {
+				String context = "input \"" + isbns[r] + "\" of " + count + ", seed " + SEED;
+				assertEquals(reference(isbns[r]), results[r], context);
+				assertAgreesWithCheckISBN(isbns[r], results[r], context);
+			}
+		}
+	}
+
+	@Test
+	public void bulkAgreesWithTheReference(@TempDir Path directory) throws IOException {
+		Random random = new Random(SEED);
+		List<String> lines = new ArrayList<>();
+		Map<Long, ValidateISBN.Result> expected = new HashMap<>();
+		for (int i = 0; i < ITERATIONS; i++) {
+			String isbn = randomInput(random);
+			lines.add(isbn);
+			ValidateISBN.Result result = reference(isbn);
+			if (result != ValidateISBN.Result.VALID) {
+				expected.put(i + 1L, result);
+			}
+		}
+		Path input = directory.resolve("isbns.txt");
+		Path rejects = directory.resolve("rejects.txt");
+		Files.write(input, lines, StandardCharsets.US_ASCII);
+
+		BulkISBNValidator.Summary summary = new BulkISBNValidator(validator).validateFile(input, rejects);
+		assertEquals(lines.size(), summary.getLines());
+		Map<Long, ValidateISBN.Result> actual = new HashMap<>();
+		for (String reject : Files.readAllLines(rejects, StandardCharsets.US_ASCII)) {
+			String[] fields = reject.split(",");
+			actual.put(Long.parseLong(fields[0]), ValidateISBN.Result.valueOf(fields[1]));
+		}
+		assertEquals(expected, actual, "seed " + SEED);
+	}
+
+	// Straightforward validation by digit value, written for clarity rather than speed
+	private static ValidateISBN.Result reference(String isbn) {
+		int length = isbn.length();
+		if (length != 10 && length != 13) {
+			return ValidateISBN.Result.BAD_LENGTH;
+		}
+		int total = 0;
+		for (int i = 0; i < length; i++) {
+			char c = isbn.charAt(i);
+			int value;
+			if (Character.isDigit(c) && c < 128) {
+				value = c - '0';
+			} else if (c == 'X' && length == 10 && i == 9) {
+				value = 10;
+			} else {
+				return ValidateISBN.Result.BAD_CHAR;
+			}
+			total += value * (length == 10 ? 10 - i : i % 2 == 0 ? 1 : 3);
+		}
+		return total % (length == 10 ? 11 : 10) == 0 ? ValidateISBN.Result.VALID : ValidateISBN.Result.BAD_CHECKSUM;
+	}
+
+	// The original checkISBN counts 'X' wrongly and does not look at the characters of an ISBN-13, so it is only
+	// asked about input it judges correctly
+	private void assertAgreesWithCheckISBN(String isbn, ValidateISBN.Result result, String context) {
+		if (isbn.indexOf('X') >= 0) {
+			return;
+		}
+		if (result == ValidateISBN.Result.BAD_LENGTH || (result == ValidateISBN.Result.BAD_CHAR && isbn.length() == 10)) {
+			assertThrows(NumberFormatException.class, () -> validator.checkISBN(isbn), context);
+		} else if (result != ValidateISBN.Result.BAD_CHAR) {
+			assertEquals(result == ValidateISBN.Result.VALID, validator.checkISBN(isbn), context);
+		}
+	}
+
+	private static String toISBN13(String isbn) {
+		if (isbn.length() == 13) {
+			return isbn;
+		}
+		String prefixed = "978" + isbn.substring(0, 9);
+		int total = 0;
+		for (int i = 0; i < 12; i++) {
+			total += (prefixed.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+		}
+		return prefixed + (10 - total % 10) % 10;
+	}
+
+	private String randomInput(Random random) {
+		int length = random.nextInt(4) == 0 ? random.nextInt(18) : random.nextBoolean() ? 10 : 13;
+		return randomInput(random, length);
+	}
+
+	// A third of the inputs are made valid by choosing the check digit, otherwise few would be
+	private String randomInput(Random random, int length) {
+		StringBuilder isbn = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			isbn.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		}
+		if ((length == 10 || length == 13) && random.nextInt(3) == 0) {
+			for (int i = 0; i < length - 1; i++) {
+				isbn.setCharAt(i, (char) ('0' + random.nextInt(10)));
+			}
+			String checkDigits = length == 10 ? "0123456789X" : "0123456789";
+			for (int i = 0; i < checkDigits.length(); i++) {
+				isbn.setCharAt(length - 1, checkDigits.charAt(i));
+				if (reference(isbn.toString()) == ValidateISBN.Result.VALID) {
+					break;
+				}
+			}
+		}
+		return isbn.toString();
+	}
+}
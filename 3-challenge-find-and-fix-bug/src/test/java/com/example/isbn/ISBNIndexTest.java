@@ -0,0 +1,72 @@
+package com.example.isbn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ISBNIndexTest {
+
+	@Test
+	public void containsOnlyWhatWasAdded() {
+		ISBNIndex index = new ISBNIndex(0, true);
+		// Grows well past the size it was created for
+		for (long i = 0; i < 100_000; i++) {
+			assertTrue(index.add(9780000000000L + i * 7));
+		}
+		assertFalse(index.add(9780000000000L));
+		assertEquals(100_000, index.size());
+		for (long i = 0; i < 700_000; i++) {
+			assertEquals(i % 7 == 0, index.contains(9780000000000L + i), "value " + i);
+		}
+	}
+
+	@Test
+	public void bloomFilterStaysSelectiveAsTheTableGrows() {
+		for (long expectedSize : new long[] {0, 1000, 200_000}) {
+			ISBNIndex index = new ISBNIndex(expectedSize, true);
+			for (long i = 0; i < 200_000; i++) {
+				index.add(9780000000000L + i * 2);
+			}
+			int passed = 0;
+			for (long i = 0; i < 200_000; i++) {
+				long absent = 9780000000001L + i * 2;
+				assertFalse(index.contains(absent));
+				if (index.bloomMayContain(absent)) {
+					passed++;
+				}
+			}
+			// About 1% by design; an undersized filter lets nearly everything through
+			assertTrue(passed < 200_000 / 20, "false positives " + passed + " for expected size " + expectedSize);
+		}
+	}
+
+	@Test
+	public void packsOnlyThirteenDigits() {
+		assertEquals(9781853260087L, ISBNIndex.pack("9781853260087"));
+		assertEquals(-1, ISBNIndex.pack("97818532600X7"));
+		assertEquals(-1, ISBNIndex.pack("0140449116"));
+		assertThrows(IllegalArgumentException.class,
+				() -> {
+					new ISBNIndex(10, false).add(-1);
+				});
+	}
+
+	@Test
+	public void buildSkipsInvalidLines(@TempDir Path directory) throws IOException {
+		Path file = directory.resolve("catalogue.txt");
+		Files.write(file, Arrays.asList("9781853260087", "9781853267336", "0140449116", "9781853267338\r"),
+				StandardCharsets.US_ASCII);
+		ISBNIndex index = ISBNIndex.build(file, false);
+		assertEquals(2, index.size());
+		assertTrue(index.contains("9781853260087"));
+		assertTrue(index.contains("9781853267338"));
+		assertFalse(index.contains("9781853267336"));
+	}
+}
@@ -0,0 +1,57 @@
+package com.example.isbn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class ISBNNormalizerTest {
+
+	@Test
+	public void separatorsAreSkipped() {
+		ISBNNormalizer normalizer = new ISBNNormalizer();
+		byte[] out = new byte[13];
+		assertEquals(ValidateISBN.Result.VALID, normalizer.normalize("978-1-85326-008-7", out, 0));
+		assertEquals("9781853260087", new String(out, StandardCharsets.US_ASCII));
+		assertEquals(ValidateISBN.Result.VALID, normalizer.normalize(" 978 1853 267338 ", out, 0));
+		assertEquals("9781853267338", new String(out, StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	public void tenDigitISBNsAreConverted() {
+		ISBNNormalizer normalizer = new ISBNNormalizer();
+		byte[] out = new byte[15];
+		assertEquals(ValidateISBN.Result.VALID, normalizer.normalize("0-14-044911-6", out, 2));
+		assertEquals("9780140449112", new String(out, 2, 13, StandardCharsets.US_ASCII));
+		assertEquals(ValidateISBN.Result.VALID, normalizer.normalize("0 12 000030 X", out, 0));
+		assertEquals("9780120000302", new String(out, 0, 13, StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	public void invalidISBNsAreReported() {
+		ISBNNormalizer normalizer = new ISBNNormalizer();
+		byte[] out = new byte[13];
+		assertEquals(ValidateISBN.Result.BAD_CHECKSUM, normalizer.normalize("0-14-044911-7", out, 0));
+		assertEquals(ValidateISBN.Result.BAD_CHAR, normalizer.normalize("01200003X0", out, 0));
+		assertEquals(ValidateISBN.Result.BAD_CHAR, normalizer.normalize("978/1853260087", out, 0));
+		assertEquals(ValidateISBN.Result.BAD_LENGTH, normalizer.normalize("978-1-85326-008", out, 0));
+		assertEquals(ValidateISBN.Result.BAD_LENGTH, normalizer.normalize("978-1-85326-008-77", out, 0));
+	}
+
+	@Test
+	public void linesAreNormalizedOrRejected() throws IOException {
+		String input = "978-1-85326-008-7\r\n0140449116\nhello\n9781853267338";
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream rejects = new ByteArrayOutputStream();
+		BulkISBNValidator.Summary summary = new ISBNNormalizer().normalizeLines(
+				new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)), out, rejects);
+		assertEquals(4, summary.getLines());
+		assertEquals(1, summary.getRejected());
+		assertEquals("9781853260087\n9780140449112\n9781853267338\n", out.toString("US-ASCII"));
+		assertEquals("3,BAD_CHAR\n", rejects.toString("US-ASCII"));
+	}
+}
@@ -0,0 +1,100 @@
+package com.example.isbn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class ValidateISBNTest {
+
+	@Test
+	public void checkAValid10DigitISBN() {
+		ValidateISBN validator = new ValidateISBN();
+		boolean result = validator.checkISBN("0140449116");
+		assertTrue(result,"first value");
+		result = validator.checkISBN("0140177396");
+		assertTrue(result, "second value");
+	}
+	
+	@Test
+	public void checkAValid13DigitISBN() {
+		ValidateISBN validator = new ValidateISBN();
+		boolean result = validator.checkISBN("9781853260087");
+		assertTrue(result,"first value");
+		result = validator.checkISBN("9781853267338");
+		assertTrue(result, "second value");
+	}
+	
+	@Test
+	public void TenDigitISBNNumbersEndingInAnXAreValid() {
+		ValidateISBN validator = new ValidateISBN();
+		boolean result = validator.checkISBN("012000030X");
+		assertFalse(result);
+	}
+
+	@Test
+	public void checkAnInvalid10DigitISBN() {
+		ValidateISBN validator = new ValidateISBN();
+		boolean result = validator.checkISBN("0140449117");
+		assertFalse(result);
+	}
+	
+	@Test
+	public void checkAnInvalid13DigitISBN() {
+		ValidateISBN validator = new ValidateISBN();
+		boolean result = validator.checkISBN("9781853267336");
+		assertFalse(result);
+	}
+	
+	@Test
+	public void nineDigitISBNsAreNotAllowed() {
+		ValidateISBN validator = new ValidateISBN();
+		assertThrows(NumberFormatException.class, 
+				() -> {
+					validator.checkISBN("123456789");
+				});
+	}
+	
+	@Test
+	public void nonNumericISBNsAreNotAllowed() {
+		ValidateISBN validator = new ValidateISBN();
+		assertThrows(NumberFormatException.class, 
+				() -> {
+					validator.checkISBN("helloworld");
+				});
+	}
+
+	@Test
+	public void validateReportsAResultInsteadOfThrowing() {
+		ValidateISBN validator = new ValidateISBN();
+		assertEquals(ValidateISBN.Result.VALID, validator.validate("9781853260087"));
+		assertEquals(ValidateISBN.Result.VALID, validator.validate("0140449116"));
+		assertEquals(ValidateISBN.Result.BAD_CHECKSUM, validator.validate("9781853267336"));
+		assertEquals(ValidateISBN.Result.BAD_CHECKSUM, validator.validate("0140449117"));
+		assertEquals(ValidateISBN.Result.BAD_LENGTH, validator.validate("123456789"));
+		assertEquals(ValidateISBN.Result.BAD_CHAR, validator.validate("helloworld"));
+		assertEquals(ValidateISBN.Result.BAD_CHAR, validator.validate("97818532600X7"));
+	}
+
+	@Test
+	public void validateAcceptsAnXCheckDigitOnlyInTenDigitISBNs() {
+		ValidateISBN validator = new ValidateISBN();
+		assertEquals(ValidateISBN.Result.VALID, validator.validate("012000030X"));
+		assertEquals(ValidateISBN.Result.BAD_CHAR, validator.validate("01200003X0"));
+	}
+
+	@Test
+	public void validateReadsASliceOfBytes() {
+		ValidateISBN validator = new ValidateISBN();
+		byte[] row = "id,9781853260087,0140449117\n".getBytes(StandardCharsets.US_ASCII);
+		assertEquals(ValidateISBN.Result.VALID, validator.validate(row, 3, 13));
+		assertEquals(ValidateISBN.Result.BAD_CHECKSUM, validator.validate(row, 17, 10));
+
+		ByteBuffer buffer = ByteBuffer.wrap(row);
+		assertEquals(ValidateISBN.Result.VALID, validator.validate(buffer, 3, 13));
+		assertEquals(ValidateISBN.Result.BAD_LENGTH, validator.validate(buffer, 3, 14));
+		assertEquals(0, buffer.position());
+	}
+}
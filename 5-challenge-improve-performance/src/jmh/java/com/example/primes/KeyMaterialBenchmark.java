@@ -0,0 +1,56 @@
+package com.example.primes;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Key material throughput. With the default batch of one, Throughput reads
+ * directly as RSA key pairs, or safe primes, per second.
+ *
+ * For example {@code java -jar target/benchmarks.jar KeyMaterial -p modulusBits=2048,3072}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(2)
+@State(Scope.Benchmark)
+public class KeyMaterialBenchmark {
+
+    @Param({"2048"})
+    private int modulusBits;
+
+    @Param({"1"})
+    private int batchSize;
+
+    private KeyMaterialGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = new KeyMaterialGenerator(modulusBits);
+    }
+
+    @Benchmark
+    public List<KeyMaterialGenerator.RsaPrimes> rsaPrimes() {
+        return generator.rsaPrimes(batchSize);
+    }
+
+    // Orders of magnitude slower than an RSA pair; use a smaller modulusBits for quick runs
+    @Benchmark
+    public List<KeyMaterialGenerator.SafePrime> safePrimes() {
+        return generator.safePrimes(batchSize);
+    }
+}
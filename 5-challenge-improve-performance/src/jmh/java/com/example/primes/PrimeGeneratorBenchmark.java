@@ -0,0 +1,93 @@
+package com.example.primes;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the PrimeGenerator strategies on one batch of primes per invocation.
+ * Throughput gives batches per second, SampleTime gives the latency distribution
+ * (p50/p90/p99/max) of a single batch.
+ *
+ * Override the parameters on the command line, e.g.
+ * {@code java -jar target/benchmarks.jar -p bitLength=1024 -p batchSize=1,8 -p threads=1,4}
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PrimeGeneratorBenchmark {
+
+    @Param({"2000"})
+    private int bitLength;
+
+    @Param({"1", "16"})
+    private int batchSize;
+
+    // Worker threads per batch; 0 means one per available processor
+    @Param({"0"})
+    private int threads;
+
+    private PrimeGenerator primeGenerator;
+    private ForkJoinPool streamPool;
+    private int workers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        primeGenerator = new PrimeGenerator(bitLength);
+        workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        streamPool = new ForkJoinPool(workers);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        streamPool.shutdown();
+    }
+
+    @Benchmark
+    public List<BigInteger> executor() {
+        return primeGenerator.getPrimes(batchSize, Math.min(batchSize, workers));
+    }
+
+    // A parallel stream runs in the pool that invokes it, so this honours the threads parameter
+    @Benchmark
+    public List<BigInteger> stream() {
+        return streamPool.submit(() -> primeGenerator.getPrimesStream(batchSize)).join();
+    }
+
+    // One virtual thread per prime, so the threads parameter does not apply; the deadline only bounds a runaway call
+    @Benchmark
+    public List<BigInteger> structured() throws Exception {
+        return primeGenerator.getPrimesStructured(batchSize, Duration.ofMinutes(10));
+    }
+
+    // A single prime searched by all workers together, so batchSize does not apply
+    @Benchmark
+    public BigInteger cooperative() {
+        return primeGenerator.getPrimeCooperative(workers);
+    }
+
+    // Single threaded regardless of the threads parameter
+    @Benchmark
+    public List<BigInteger> original() {
+        return primeGenerator.getPrimesOriginal(batchSize);
+    }
+}
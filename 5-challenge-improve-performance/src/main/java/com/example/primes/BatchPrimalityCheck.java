@@ -0,0 +1,147 @@
+package com.example.primes;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Primality checks for a stream of externally supplied values. Values larger
+ * than 64 bits are first screened with a single gcd against the product of
+ * all primes below {@link #PRIMORIAL_LIMIT}, which rejects most composites
+ * without any modular exponentiation. The survivors get the full Miller-Rabin
+ * test. The values may be chosen by an adversary, so every value gets
+ * {@link #ROUNDS} random bases rather than the per-size counts that only hold
+ * for random candidates, whatever rounds the generator was built with. Values
+ * are checked in chunks on an executor, a bounded number of chunks ahead of
+ * the consumer, and results come back in input order.
+ */
+final class BatchPrimalityCheck {
+
+    // Primes below this bound make up the primorial, a little under 2900 bits
+    static final int PRIMORIAL_LIMIT = 2000;
+    // Values per task, so cheap gcd rejections are not swamped by scheduling
+    private static final int CHUNK_SIZE = 64;
+    // At most a 4^-50 chance of passing any one composite
+    static final int ROUNDS = 50;
+
+    private static final BigInteger PRIMORIAL = primorial(PRIMORIAL_LIMIT);
+
+    private final MillerRabin primality = new MillerRabin(ROUNDS);
+    private final Executor executor;
+    private final int lookahead;
+
+    BatchPrimalityCheck(Executor executor, int parallelism) {
+        this.executor = executor;
+        this.lookahead = 2 * parallelism;
+    }
+
+    boolean isProbablePrime(BigInteger n) {
+        if (n.signum() <= 0) {
+            return false;
+        }
+        // Small values may be one of the primorial's own factors, and the long path is cheaper anyway
+        if (n.bitLength() <= 64) {
+            return primality.isProbablePrime(n.longValue());
+        }
+        if (!n.gcd(PRIMORIAL).equals(BigInteger.ONE)) {
+            return false;
+        }
+        return primality.isProbablePrime(n);
+    }
+
+    /**
+     * One result per value, in the order of the values. Closing the returned
+     * stream closes the input and abandons chunks still being checked.
+     */
+    Stream<Boolean> check(Stream<BigInteger> values) {
+        ChunkIterator chunks = new ChunkIterator(values.iterator());
+        Spliterator<boolean[]> spliterator = Spliterators.spliteratorUnknownSize(
+                chunks, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false)
+                .flatMap(BatchPrimalityCheck::boxed)
+                .onClose(chunks::cancel)
+                .onClose(values::close);
+    }
+
+    private boolean[] check(BigInteger[] chunk) {
+        boolean[] results = new boolean[chunk.length];
+        for (int i = 0; i < chunk.length; i++) {
+            results[i] = isProbablePrime(chunk[i]);
+        }
+        return results;
+    }
+
+    private static Stream<Boolean> boxed(boolean[] results) {
+        Stream.Builder<Boolean> builder = Stream.builder();
+        for (boolean result : results) {
+            builder.add(result);
+        }
+        return builder.build();
+    }
+
+    // Reads the input a chunk at a time, keeping a fixed number of chunks in flight
+    private final class ChunkIterator implements Iterator<boolean[]> {
+        private final Iterator<BigInteger> values;
+        private final Queue<CompletableFuture<boolean[]>> inFlight = new ArrayDeque<>();
+
+        ChunkIterator(Iterator<BigInteger> values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return !inFlight.isEmpty();
+        }
+
+        @Override
+        public boolean[] next() {
+            fill();
+            CompletableFuture<boolean[]> head = inFlight.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            return head.join();
+        }
+
+        void cancel() {
+            inFlight.forEach(future -> future.cancel(false));
+            inFlight.clear();
+        }
+
+        private void fill() {
+            while (inFlight.size() < lookahead && values.hasNext()) {
+                BigInteger[] chunk = new BigInteger[CHUNK_SIZE];
+                int size = 0;
+                while (size < CHUNK_SIZE && values.hasNext()) {
+                    chunk[size++] = values.next();
+                }
+                BigInteger[] filled = size == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, size);
+                inFlight.add(CompletableFuture.supplyAsync(() -> check(filled), executor));
+            }
+        }
+    }
+
+    private static BigInteger primorial(int limit) {
+        boolean[] composite = new boolean[limit];
+        BigInteger product = BigInteger.ONE;
+        for (int i = 2; i < limit; i++) {
+            if (!composite[i]) {
+                product = product.multiply(BigInteger.valueOf(i));
+                for (int j = i * i; j < limit; j += i) {
+                    composite[j] = true;
+                }
+            }
+        }
+        return product;
+    }
+}
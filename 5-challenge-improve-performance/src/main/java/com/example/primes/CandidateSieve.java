@@ -0,0 +1,238 @@
+package com.example.primes;
+
+import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Finds probable primes of a fixed bit length by sieving a window of odd
+ * candidates against the small primes before any primality test is run.
+ * The residues of the random base are computed once per base and then
+ * advanced with int arithmetic, so no BigInteger is created for a
+ * candidate until it has survived the sieve.
+ */
+final class CandidateSieve {
+
+    // Every odd prime below this bound is used for sieving (3511 primes)
+    private static final int SIEVE_LIMIT = 1 << 15;
+    // Number of consecutive odd candidates covered by one window
+    private static final int WINDOW_SIZE = 4096;
+    private static final int[] SMALL_PRIMES = oddPrimesBelow(SIEVE_LIMIT);
+    // Cheap first pass for safe prime candidates, most of which fail on one side or the other
+    private static final MillerRabin SCREEN = new MillerRabin(1);
+
+    private final int bitLength;
+    private final int sieveCount;
+    private final MillerRabin primality;
+
+    CandidateSieve(int bitLength) {
+        this(bitLength, 0);
+    }
+
+    // rounds is the number of Miller-Rabin bases per survivor, 0 to choose by bit length
+    CandidateSieve(int bitLength, int rounds) {
+        if (bitLength < 2) {
+            throw new IllegalArgumentException("Bit length must be at least 2");
+        }
+        this.bitLength = bitLength;
+        this.primality = new MillerRabin(rounds);
+        this.sieveCount = primesBelow(bitLength < 32 ? 1 << (bitLength - 1) : SIEVE_LIMIT);
+    }
+
+    int bitLength() {
+        return bitLength;
+    }
+
+    // Find a random probable prime of exactly bitLength bits; throws CancellationException if interrupted
+    BigInteger nextPrime(Random random) {
+        long start = System.nanoTime();
+        while (true) {
+            BigInteger prime = search(randomOddBase(random), 0, 1);
+            if (prime != null) {
+                PrimeMetrics.global().primeFound(System.nanoTime() - start);
+                return prime;
+            }
+        }
+    }
+
+    /**
+     * Scan every stride-th window above base, starting with window first, so
+     * that stride workers sharing one base cover disjoint candidates.
+     *
+     * @return the first probable prime found, or null if the search runs past bitLength bits
+     */
+    BigInteger search(BigInteger base, int first, int stride) {
+        return search(base, first, stride, false);
+    }
+
+    /**
+     * Like {@link #search(BigInteger, int, int)}, but looks for a Sophie
+     * Germain prime q, so that 2q + 1 is a safe prime one bit longer. The
+     * window also strikes out every q for which 2q + 1 has a small factor.
+     *
+     * @return q, or null if the search runs past bitLength bits
+     */
+    BigInteger searchSophieGermain(BigInteger base, int first, int stride) {
+        return search(base, first, stride, true);
+    }
+
+    private BigInteger search(BigInteger base, int first, int stride, boolean sophieGermain) {
+        BigInteger windowBase = base.add(BigInteger.valueOf(2L * WINDOW_SIZE * first));
+        BigInteger windowStep = BigInteger.valueOf(2L * WINDOW_SIZE * stride);
+        int[] residues = residuesOf(windowBase);
+        int[] residueSteps = residuesOf(windowStep);
+        BitSet composite = new BitSet(WINDOW_SIZE);
+
+        PrimeSearchEvent event = new PrimeSearchEvent();
+        event.begin();
+        // Counted locally and published once, so the hot loop never touches shared state
+        long sieved = 0;
+        long tested = 0;
+        BigInteger prime = null;
+        try {
+            while (windowBase.bitLength() == bitLength) {
+                composite.clear();
+                markComposites(residues, composite, sophieGermain);
+
+                for (int k = composite.nextClearBit(0); k < WINDOW_SIZE; k = composite.nextClearBit(k + 1)) {
+                    BigInteger candidate = windowBase.add(BigInteger.valueOf(2L * k));
+                    if (candidate.bitLength() != bitLength) {
+                        sieved += composite.get(0, k).cardinality();
+                        return null;
+                    }
+                    // Checked once per test so cancelled searches stop burning CPU promptly
+                    if (Thread.currentThread().isInterrupted()) {
+                        sieved += composite.get(0, k).cardinality();
+                        throw new CancellationException("Prime search interrupted");
+                    }
+                    tested++;
+                    if (sophieGermain ? isSophieGermain(candidate) : primality.isProbablePrime(candidate)) {
+                        // Only the candidates the search got past count as sieved out
+                        sieved += composite.get(0, k).cardinality();
+                        prime = candidate;
+                        return prime;
+                    }
+                }
+                sieved += composite.cardinality();
+
+                windowBase = windowBase.add(windowStep);
+                advance(residues, residueSteps);
+            }
+            return null;
+        } finally {
+            PrimeMetrics metrics = PrimeMetrics.global();
+            metrics.sieved(sieved);
+            metrics.tested(tested);
+            if (event.shouldCommit()) {
+                event.bitLength = bitLength;
+                event.candidatesSieved = sieved;
+                event.candidatesTested = tested;
+                event.found = prime != null;
+                event.commit();
+            }
+        }
+    }
+
+    BigInteger randomOddBase(Random random) {
+        return new BigInteger(bitLength, random)
+                .setBit(bitLength - 1)
+                .setBit(0);
+    }
+
+    // Both q and 2q + 1 get one round before either gets the full count
+    private boolean isSophieGermain(BigInteger q) {
+        BigInteger p = q.shiftLeft(1).setBit(0);
+        return SCREEN.isProbablePrime(q) && SCREEN.isProbablePrime(p)
+                && primality.isProbablePrime(q) && primality.isProbablePrime(p);
+    }
+
+    /**
+     * Candidate k of the window is windowBase + 2k; it is divisible by p when
+     * 2k = -r (mod p). With sophieGermain, twice the candidate plus one is
+     * divisible by p when 2k = (p - 1) / 2 - r (mod p), and those are struck too.
+     */
+    private void markComposites(int[] residues, BitSet composite, boolean sophieGermain) {
+        for (int i = 0; i < sieveCount; i++) {
+            int p = SMALL_PRIMES[i];
+            int r = residues[i];
+            int inverseOfTwo = (p + 1) >>> 1;
+            int first = r == 0 ? 0 : (int) ((long) (p - r) * inverseOfTwo % p);
+            for (int k = first; k < WINDOW_SIZE; k += p) {
+                composite.set(k);
+            }
+            if (sophieGermain) {
+                int target = ((p - 1) / 2 - r + p) % p;
+                for (int k = (int) ((long) target * inverseOfTwo % p); k < WINDOW_SIZE; k += p) {
+                    composite.set(k);
+                }
+            }
+        }
+    }
+
+    // Move every residue forward by one step, where steps holds the step modulo each sieving prime
+    private void advance(int[] residues, int[] steps) {
+        for (int i = 0; i < sieveCount; i++) {
+            int p = SMALL_PRIMES[i];
+            residues[i] = (residues[i] + steps[i]) % p;
+        }
+    }
+
+    // base mod p for every sieving prime, folding 32-bit words of the magnitude
+    private int[] residuesOf(BigInteger base) {
+        int[] words = magnitudeWords(base);
+        int[] residues = new int[sieveCount];
+        for (int i = 0; i < sieveCount; i++) {
+            long p = SMALL_PRIMES[i];
+            long r = 0;
+            for (int word : words) {
+                r = ((r << 32) | (word & 0xFFFFFFFFL)) % p;
+            }
+            residues[i] = (int) r;
+        }
+        return residues;
+    }
+
+    // Big-endian 32-bit words of a non-negative BigInteger
+    private static int[] magnitudeWords(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        int[] words = new int[(bytes.length + 3) / 4];
+        for (int i = 0; i < bytes.length; i++) {
+            int fromEnd = bytes.length - 1 - i;
+            words[words.length - 1 - fromEnd / 4] |= (bytes[i] & 0xFF) << (8 * (fromEnd % 4));
+        }
+        return words;
+    }
+
+    // Number of sieving primes strictly below bound
+    private static int primesBelow(int bound) {
+        int count = 0;
+        while (count < SMALL_PRIMES.length && SMALL_PRIMES[count] < bound) {
+            count++;
+        }
+        return count;
+    }
+
+    // Plain sieve of Eratosthenes, skipping 2 since candidates are always odd
+    private static int[] oddPrimesBelow(int limit) {
+        boolean[] composite = new boolean[limit];
+        int count = 0;
+        for (int i = 3; i < limit; i += 2) {
+            if (!composite[i]) {
+                count++;
+                for (long j = (long) i * i; j < limit; j += 2L * i) {
+                    composite[(int) j] = true;
+                }
+            }
+        }
+
+        int[] primes = new int[count];
+        int index = 0;
+        for (int i = 3; i < limit; i += 2) {
+            if (!composite[i]) {
+                primes[index++] = i;
+            }
+        }
+        return primes;
+    }
+}
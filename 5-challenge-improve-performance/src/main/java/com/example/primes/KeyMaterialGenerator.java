@@ -0,0 +1,194 @@
+package com.example.primes;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Key material built from primes: RSA prime pairs and safe primes for
+ * Diffie-Hellman groups.
+ *
+ * Both use speculative parallel search. One independent prime search per
+ * worker is kept running on the executor, each result is accepted or
+ * rejected as soon as it completes and a fresh search takes its place, and
+ * the searches still running are cancelled once the batch is complete.
+ * Checks that only need one prime, such as gcd(e, p - 1) = 1, are made inside
+ * the search, so a prime that could never be used is not even handed back
+ * for pairing.
+ *
+ * Every batch adds to the key pair counters of {@link PrimeMetrics}.
+ */
+public class KeyMaterialGenerator {
+
+    public static final BigInteger DEFAULT_PUBLIC_EXPONENT = BigInteger.valueOf(65537);
+
+    /**
+     * The secret primes of an RSA key and the public exponent they were checked against.
+     */
+    public record RsaPrimes(BigInteger p, BigInteger q, BigInteger publicExponent) {
+
+        public BigInteger modulus() {
+            return p.multiply(q);
+        }
+    }
+
+    /**
+     * A safe prime p = 2q + 1 together with the prime q.
+     */
+    public record SafePrime(BigInteger p, BigInteger q) {
+    }
+
+    private final int modulusBits;
+    private final BigInteger publicExponent;
+    // Each RSA prime has half the bits of the modulus
+    private final CandidateSieve factorSieve;
+    // q for safe primes of modulusBits bits
+    private final CandidateSieve sophieGermainSieve;
+    // p and q closer than this are rejected as a pair
+    private final BigInteger minDistance;
+    // Shared executor; null means a pool is created per call
+    private final ExecutorService executor;
+    private final int workers;
+
+    public KeyMaterialGenerator(int modulusBits) {
+        this(modulusBits, DEFAULT_PUBLIC_EXPONENT, null);
+    }
+
+    /**
+     * @param modulusBits    bit length of the RSA modulus, and of every safe prime
+     * @param publicExponent RSA public exponent e, odd and at least 3
+     * @param executor       shared executor owned by the caller, or null to create a pool per call
+     */
+    public KeyMaterialGenerator(int modulusBits, BigInteger publicExponent, ExecutorService executor) {
+        if (modulusBits < 16 || modulusBits % 2 != 0) {
+            throw new IllegalArgumentException("Modulus bit length must be even and at least 16");
+        }
+        if (publicExponent.compareTo(BigInteger.valueOf(3)) < 0 || !publicExponent.testBit(0)) {
+            throw new IllegalArgumentException("Public exponent must be odd and at least 3");
+        }
+        int factorBits = modulusBits / 2;
+        this.modulusBits = modulusBits;
+        this.publicExponent = publicExponent;
+        this.factorSieve = new CandidateSieve(factorBits);
+        this.sophieGermainSieve = new CandidateSieve(modulusBits - 1);
+        // FIPS 186-4 asks for |p - q| > 2^(nlen/2 - 100); small test sizes fall back to half the factor bits
+        this.minDistance = BigInteger.ONE.shiftLeft(Math.max(factorBits - 100, factorBits / 2));
+        this.executor = executor;
+        this.workers = Runtime.getRuntime().availableProcessors();
+    }
+
+    public int getModulusBits() {
+        return modulusBits;
+    }
+
+    /**
+     * Generate prime pairs for RSA keys. Both primes of a pair have exactly
+     * half the bits of the modulus and their top two bits set, so the modulus
+     * has exactly modulusBits bits, and p - 1 and q - 1 are coprime to the
+     * public exponent.
+     */
+    public List<RsaPrimes> rsaPrimes(int count) {
+        return speculate(count, this::nextFactor, new Pairing());
+    }
+
+    /**
+     * Generate safe primes of modulusBits bits for Diffie-Hellman groups.
+     */
+    public List<SafePrime> safePrimes(int count) {
+        return speculate(count, this::nextSophieGermain, q -> new SafePrime(q.shiftLeft(1).setBit(0), q));
+    }
+
+    /**
+     * Keep one search per worker in flight until count results have been
+     * accepted. accept runs on the calling thread only and returns null to
+     * reject a prime.
+     */
+    private <T> List<T> speculate(int count, Callable<BigInteger> search, Function<BigInteger, T> accept) {
+        ExecutorService pool = executor != null ? executor : Executors.newFixedThreadPool(workers);
+        List<Future<BigInteger>> running = new ArrayList<>(workers);
+        long start = System.nanoTime();
+        try {
+            CompletionService<BigInteger> completion = new ExecutorCompletionService<>(pool);
+            List<T> results = new ArrayList<>(count);
+            for (int i = 0; i < workers && count > 0; i++) {
+                running.add(completion.submit(search));
+            }
+            while (results.size() < count) {
+                Future<BigInteger> done = completion.take();
+                running.remove(done);
+                T result = accept.apply(done.get());
+                if (result != null) {
+                    results.add(result);
+                }
+                if (results.size() < count) {
+                    running.add(completion.submit(search));
+                }
+            }
+            PrimeMetrics.global().keyPairsGenerated(count, System.nanoTime() - start);
+            return results;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Error generating key material", e);
+        } finally {
+            running.forEach(future -> future.cancel(true));
+            if (executor == null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // A prime of half the modulus bits with its top two bits set and p - 1 coprime to e
+    private BigInteger nextFactor() {
+        long start = System.nanoTime();
+        while (true) {
+            BigInteger base = factorSieve.randomOddBase(ThreadLocalRandom.current())
+                    .setBit(factorSieve.bitLength() - 2);
+            BigInteger prime = factorSieve.search(base, 0, 1);
+            if (prime != null && prime.subtract(BigInteger.ONE).gcd(publicExponent).equals(BigInteger.ONE)) {
+                PrimeMetrics.global().primeFound(System.nanoTime() - start);
+                return prime;
+            }
+        }
+    }
+
+    private BigInteger nextSophieGermain() {
+        long start = System.nanoTime();
+        while (true) {
+            BigInteger base = sophieGermainSieve.randomOddBase(ThreadLocalRandom.current());
+            BigInteger q = sophieGermainSieve.searchSophieGermain(base, 0, 1);
+            if (q != null) {
+                PrimeMetrics.global().primeFound(System.nanoTime() - start);
+                return q;
+            }
+        }
+    }
+
+    // Pairs primes in the order they complete, dropping one that is too close to its partner
+    private final class Pairing implements Function<BigInteger, RsaPrimes> {
+        private BigInteger unpaired;
+
+        @Override
+        public RsaPrimes apply(BigInteger prime) {
+            if (unpaired == null) {
+                unpaired = prime;
+                return null;
+            }
+            if (prime.subtract(unpaired).abs().compareTo(minDistance) <= 0) {
+                return null;
+            }
+            RsaPrimes pair = new RsaPrimes(unpaired, prime, publicExponent);
+            unpaired = null;
+            return pair;
+        }
+    }
+}
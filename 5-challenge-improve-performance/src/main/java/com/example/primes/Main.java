@@ -1,9 +1,13 @@
+package com.example.primes;
+
 import java.math.BigInteger;
 import java.util.List;
 
 public class Main {
     public static void main(String[] args) {
         PrimeGenerator primeGenerator = new PrimeGenerator();
+        // Visible in JConsole/VisualVM under com.example.primes while this runs
+        PrimeMetrics.register();
         
         System.out.println("=== Performance Comparison ===");
         System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
@@ -35,20 +39,24 @@ public class Main {
         primeGenerator.getPrimesOriginal(10); // Only 10 primes for comparison
         long end3 = System.currentTimeMillis();
         System.out.println("Original method time (10 primes): " + (end3 - start3) + " ms");
-        System.out.println("Estimated time for 100 primes: " + ((end3 - start3) * 10) + " ms");
         System.out.println();
         
-        // Performance summary
+        // Single cold runs only give a rough idea; use the JMH suite for real numbers
         System.out.println("=== Performance Summary ===");
         System.out.println("Executor-based parallel (100 primes): " + (end1 - start1) + " ms");
         System.out.println("Stream-based parallel (100 primes): " + (end2 - start2) + " ms");
-        System.out.println("Original method (estimated 100 primes): " + ((end3 - start3) * 10) + " ms");
-        
-        long fastest = Math.min(end1 - start1, end2 - start2);
-        long originalEstimate = (end3 - start3) * 10;
-        double speedup = (double) originalEstimate / fastest;
-        
-        System.out.println("Fastest optimized method: " + fastest + " ms");
-        System.out.println("Speedup vs original: " + String.format("%.2fx", speedup));
+        System.out.println("Original method (10 primes): " + (end3 - start3) + " ms");
+        System.out.println("For throughput and latency with warmup run: mvn -Pbenchmark package && java -jar target/benchmarks.jar");
+        System.out.println();
+
+        // The original method bypasses the sieve, so these cover the first two runs only
+        PrimeMetrics metrics = PrimeMetrics.global();
+        System.out.println("=== Search Metrics ===");
+        System.out.println("Primes found: " + metrics.getPrimesFound());
+        System.out.println("Candidates sieved out: " + metrics.getCandidatesSieved());
+        System.out.println("Candidates tested: " + metrics.getCandidatesTested());
+        System.out.println("Miller-Rabin rounds: " + metrics.getMillerRabinRounds());
+        System.out.printf("Search time per prime: mean %.1f ms, p50 <= %.1f ms, p99 <= %.1f ms%n",
+                metrics.getMeanSearchMillis(), metrics.getSearchMillisP50(), metrics.getSearchMillisP99());
     }
 }
\ No newline at end of file
@@ -0,0 +1,309 @@
+package com.example.primes;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+public class PrimeGenerator {
+
+    private static final int PRIME_BITS = 2000;
+
+    private final int primeBits;
+    private final CandidateSieve sieve;
+    // Shared executor for getPrimes; null means a pool is created per call
+    private final ExecutorService executor;
+
+    public PrimeGenerator() {
+        this(PRIME_BITS);
+    }
+
+    // Bit lengths other than PRIME_BITS are only meant for benchmarking and testing
+    public PrimeGenerator(int primeBits) {
+        this(primeBits, null);
+    }
+
+    // The executor is shared across calls and owned by the caller, so it is never shut down here
+    public PrimeGenerator(int primeBits, ExecutorService executor) {
+        this(primeBits, 0, executor);
+    }
+
+    /**
+     * @param primeBits bit length of every generated prime
+     * @param rounds    Miller-Rabin rounds per candidate, or 0 to choose by bit length
+     * @param executor  shared executor for getPrimes, or null to create a pool per call
+     */
+    public PrimeGenerator(int primeBits, int rounds, ExecutorService executor) {
+        this.primeBits = primeBits;
+        this.sieve = new CandidateSieve(primeBits, rounds);
+        this.executor = executor;
+    }
+
+    public int getPrimeBits() {
+        return primeBits;
+    }
+
+    public List<BigInteger> getPrimes(int size) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        // One task per prime would leave every other core idle, so split the single search instead
+        if (size == 1 && processors > 1) {
+            return List.of(executor != null ? getPrimeCooperative(executor, processors) : getPrimeCooperative(processors));
+        }
+        if (executor != null) {
+            return getPrimes(size, executor);
+        }
+        // Use parallel processing for better performance
+        return getPrimes(size, Math.min(size, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public List<BigInteger> getPrimes(int size, int numThreads) {
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        try {
+            return getPrimes(size, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public List<BigInteger> getPrimes(int size, ExecutorService executor) {
+        System.out.println("About to find " + size + " primes using parallel processing.");
+
+        List<Future<BigInteger>> futures = new ArrayList<>();
+        
+        try {
+            // Submit tasks to generate primes in parallel
+            for (int i = 0; i < size; i++) {
+                futures.add(executor.submit(new PrimeTask(sieve)));
+            }
+            
+            // Collect results
+            List<BigInteger> primes = new ArrayList<>(size);
+            for (Future<BigInteger> future : futures) {
+                primes.add(future.get());
+            }
+            
+            System.out.println("Found all " + primes.size() + " primes.");
+            return primes;
+            
+        } catch (Exception e) {
+            // Don't leave tasks running on a shared executor once the caller has failed
+            futures.forEach(future -> future.cancel(true));
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Error generating primes", e);
+        }
+    }
+
+    /**
+     * Generate primes with one virtual thread per task, scoped to this call.
+     * Every task is cancelled once the primes have been collected, the
+     * deadline passes or the calling thread is interrupted, and the method
+     * only returns after all of them have stopped.
+     *
+     * @throws TimeoutException if fewer than size primes were found before the deadline
+     */
+    public List<BigInteger> getPrimesStructured(int size, Duration timeout)
+            throws InterruptedException, TimeoutException {
+        System.out.println("About to find " + size + " primes using virtual threads.");
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<BigInteger> primes = new ArrayList<>(size);
+
+        // close() at the end of the block waits for every task to finish
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<BigInteger> completion = new ExecutorCompletionService<>(scope);
+            List<Future<BigInteger>> tasks = new ArrayList<>(size);
+            try {
+                for (int i = 0; i < size; i++) {
+                    tasks.add(completion.submit(new PrimeTask(sieve)));
+                }
+                while (primes.size() < size) {
+                    Future<BigInteger> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        throw new TimeoutException("Found " + primes.size() + " of " + size + " primes before the deadline");
+                    }
+                    primes.add(done.get());
+                }
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Error generating primes", e.getCause());
+            } finally {
+                tasks.forEach(task -> task.cancel(true));
+            }
+        }
+
+        System.out.println("Found all " + primes.size() + " primes.");
+        return primes;
+    }
+    
+    // Generate a single prime on the calling thread
+    public BigInteger getPrime() {
+        return sieve.nextPrime(ThreadLocalRandom.current());
+    }
+
+    public BigInteger getPrimeCooperative(int numThreads) {
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        try {
+            return getPrimeCooperative(pool, numThreads);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Find a single prime with several workers sharing one random base. Worker
+     * i scans windows i, i + workers, i + 2 * workers, ... above the base, so
+     * no candidate is tested twice, and the first probable prime found cancels
+     * the other workers. This cuts the latency of one prime rather than the
+     * throughput of a batch.
+     */
+    public BigInteger getPrimeCooperative(ExecutorService executor, int workers) {
+        List<Future<BigInteger>> futures = new ArrayList<>(workers);
+        long start = System.nanoTime();
+        try {
+            while (true) {
+                BigInteger base = sieve.randomOddBase(ThreadLocalRandom.current());
+                CompletionService<BigInteger> completion = new ExecutorCompletionService<>(executor);
+                for (int i = 0; i < workers; i++) {
+                    int first = i;
+                    futures.add(completion.submit(() -> sieve.search(base, first, workers)));
+                }
+                for (int i = 0; i < workers; i++) {
+                    BigInteger prime = completion.take().get();
+                    if (prime != null) {
+                        PrimeMetrics.global().primeFound(System.nanoTime() - start);
+                        return prime;
+                    }
+                }
+                // Every worker ran past bitLength bits without a prime, which only happens for tiny bit lengths
+                futures.clear();
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Error generating primes", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+    
+    // Callable task for generating a single prime
+    private static class PrimeTask implements Callable<BigInteger> {
+        private final CandidateSieve sieve;
+
+        PrimeTask(CandidateSieve sieve) {
+            this.sieve = sieve;
+        }
+
+        @Override
+        public BigInteger call() {
+            // Use ThreadLocalRandom for better performance in multithreaded environment
+            return sieve.nextPrime(ThreadLocalRandom.current());
+        }
+    }
+    
+    /**
+     * Check externally supplied values for primality, in parallel on the
+     * shared executor or the common fork-join pool.
+     *
+     * @return one result per value, in input order
+     */
+    public List<Boolean> checkAll(List<BigInteger> values) {
+        try (Stream<Boolean> results = checkAll(values.stream())) {
+            return results.toList();
+        }
+    }
+
+    /**
+     * Streaming form of {@link #checkAll(List)}: values are read and checked a
+     * chunk at a time, a bounded number of chunks ahead of the consumer, so an
+     * unbounded input can be checked in constant memory. Results are in input
+     * order; close the returned stream to stop early.
+     */
+    public Stream<Boolean> checkAll(Stream<BigInteger> values) {
+        Executor pool = executor != null ? executor : ForkJoinPool.commonPool();
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        return new BatchPrimalityCheck(pool, parallelism).check(values);
+    }
+
+    /**
+     * Every prime up to and including n, in ascending order. The range is
+     * sieved in cache-sized segments on the common fork-join pool, so memory
+     * use does not grow with n; close the stream to stop sieving early.
+     */
+    public LongStream primesUpTo(long n) {
+        if (n == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("n must be below Long.MAX_VALUE");
+        }
+        return primesInRange(0, n + 1);
+    }
+
+    /**
+     * Every prime p with lo <= p < hi, in ascending order. The primes up to
+     * sqrt(hi) are held in memory for sieving the segments.
+     *
+     * @throws IllegalArgumentException if lo is negative, hi is below lo or sqrt(hi) exceeds Integer.MAX_VALUE
+     */
+    public LongStream primesInRange(long lo, long hi) {
+        Stream<long[]> chunks = primeChunksInRange(lo, hi);
+        return chunks.flatMapToLong(LongStream::of).onClose(chunks::close);
+    }
+
+    /**
+     * The primes of [lo, hi) packed into one ascending array per sieve segment,
+     * for callers that want to avoid boxing or per-element stream overhead.
+     */
+    public Stream<long[]> primeChunksInRange(long lo, long hi) {
+        return new SegmentedSieve(lo, hi, ForkJoinPool.commonPool()).chunks();
+    }
+
+    // Alternative method using streams for even better performance in some cases
+    public List<BigInteger> getPrimesStream(int size) {
+        System.out.println("About to find " + size + " primes using parallel streams.");
+        
+        // Use parallel stream for concurrent execution; each split collects into its own list
+        List<BigInteger> primes = IntStream.range(0, size)
+            .parallel()
+            .mapToObj(i -> generateOptimizedPrime())
+            .collect(Collectors.toList());
+        
+        System.out.println("Found all " + primes.size() + " primes.");
+        return primes;
+    }
+    
+    // Optimized prime generation method: sieve a window of candidates, test only the survivors
+    private BigInteger generateOptimizedPrime() {
+        return sieve.nextPrime(ThreadLocalRandom.current());
+    }
+    
+    // Original method for comparison (SLOW - for benchmarking only)
+    public List<BigInteger> getPrimesOriginal(int size) {
+        System.out.println("About to find " + size + " primes using original method.");
+
+        List<BigInteger> primes = new ArrayList<>();
+        
+        for (int i = 0; i < size; i++) {
+            primes.add(new BigInteger(primeBits, new java.util.Random()).nextProbablePrime());
+        }
+
+        System.out.println("Found all " + primes.size() + " primes.");
+        return primes;          
+    }
+}
\ No newline at end of file
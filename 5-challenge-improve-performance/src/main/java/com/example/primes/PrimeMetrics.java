@@ -0,0 +1,175 @@
+package com.example.primes;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide counters for prime generation. Every counter is a striped
+ * LongAdder, so generator threads update them without contending, and the
+ * sieve and primality test add their counts once per search or round rather
+ * than once per candidate where they can.
+ *
+ * Call {@link #register()} to expose the counters over JMX. Each sieve
+ * search also emits a {@link PrimeSearchEvent} when JFR is recording it.
+ */
+public final class PrimeMetrics implements PrimeMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.example.primes:type=PrimeMetrics";
+
+    private static final PrimeMetrics GLOBAL = new PrimeMetrics();
+    // Bucket i counts searches that took [2^i, 2^(i+1)) ns
+    private static final int BUCKETS = 64;
+
+    private final LongAdder candidatesSieved = new LongAdder();
+    private final LongAdder candidatesTested = new LongAdder();
+    private final LongAdder millerRabinRounds = new LongAdder();
+    private final LongAdder primesFound = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder[] latency = new LongAdder[BUCKETS];
+    private final LongAdder keyPairs = new LongAdder();
+    private final LongAdder keyPairNanos = new LongAdder();
+
+    private PrimeMetrics() {
+        for (int i = 0; i < BUCKETS; i++) {
+            latency[i] = new LongAdder();
+        }
+    }
+
+    public static PrimeMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Register the global metrics with the platform MBean server. Calling it
+     * again is harmless.
+     */
+    public static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(GLOBAL, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    void sieved(long candidates) {
+        candidatesSieved.add(candidates);
+    }
+
+    void tested(long candidates) {
+        candidatesTested.add(candidates);
+    }
+
+    void millerRabinRound() {
+        millerRabinRounds.increment();
+    }
+
+    // Wall-clock time from starting the search for one prime to finding it
+    void primeFound(long nanos) {
+        primesFound.increment();
+        searchNanos.add(nanos);
+        latency[63 - Long.numberOfLeadingZeros(Math.max(nanos, 1))].increment();
+    }
+
+    // One batch of key material: how many pairs or groups it produced and its wall-clock time
+    void keyPairsGenerated(long count, long nanos) {
+        keyPairs.add(count);
+        keyPairNanos.add(nanos);
+    }
+
+    @Override
+    public long getCandidatesSieved() {
+        return candidatesSieved.sum();
+    }
+
+    @Override
+    public long getCandidatesTested() {
+        return candidatesTested.sum();
+    }
+
+    @Override
+    public long getMillerRabinRounds() {
+        return millerRabinRounds.sum();
+    }
+
+    @Override
+    public long getPrimesFound() {
+        return primesFound.sum();
+    }
+
+    @Override
+    public double getMeanSearchMillis() {
+        long found = primesFound.sum();
+        return found == 0 ? 0 : searchNanos.sum() / 1e6 / found;
+    }
+
+    @Override
+    public double getSearchMillisP50() {
+        return percentileMillis(0.5);
+    }
+
+    @Override
+    public double getSearchMillisP99() {
+        return percentileMillis(0.99);
+    }
+
+    @Override
+    public long[] getSearchLatencyHistogram() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = latency[i].sum();
+        }
+        return counts;
+    }
+
+    @Override
+    public long getKeyPairsGenerated() {
+        return keyPairs.sum();
+    }
+
+    @Override
+    public double getKeyPairsPerSecond() {
+        long nanos = keyPairNanos.sum();
+        return nanos == 0 ? 0 : keyPairs.sum() * 1e9 / nanos;
+    }
+
+    @Override
+    public void reset() {
+        candidatesSieved.reset();
+        candidatesTested.reset();
+        millerRabinRounds.reset();
+        primesFound.reset();
+        searchNanos.reset();
+        keyPairs.reset();
+        keyPairNanos.reset();
+        for (LongAdder bucket : latency) {
+            bucket.reset();
+        }
+    }
+
+    // Upper bound of the bucket holding the given fraction of searches
+    private double percentileMillis(double fraction) {
+        long[] counts = getSearchLatencyHistogram();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.scalb(1.0, i + 1) / 1e6;
+            }
+        }
+        return Double.MAX_VALUE;
+    }
+}
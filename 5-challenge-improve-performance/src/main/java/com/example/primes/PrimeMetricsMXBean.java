@@ -0,0 +1,37 @@
+package com.example.primes;
+
+/**
+ * Management view of {@link PrimeMetrics}. All counts are totals since the
+ * JVM started or since the last {@link #reset()}.
+ */
+public interface PrimeMetricsMXBean {
+
+    /** Candidates struck out by the small-prime sieve without any primality test */
+    long getCandidatesSieved();
+
+    /** Candidates that survived the sieve and were given a Miller-Rabin test */
+    long getCandidatesTested();
+
+    long getMillerRabinRounds();
+
+    long getPrimesFound();
+
+    double getMeanSearchMillis();
+
+    /** Median search time, to the upper bound of its histogram bucket */
+    double getSearchMillisP50();
+
+    /** 99th percentile search time, to the upper bound of its histogram bucket */
+    double getSearchMillisP99();
+
+    /** Searches per power-of-two nanosecond bucket: entry i counts searches that took [2^i, 2^(i+1)) ns */
+    long[] getSearchLatencyHistogram();
+
+    /** RSA prime pairs and Diffie-Hellman safe primes produced by {@link KeyMaterialGenerator} */
+    long getKeyPairsGenerated();
+
+    /** Key pairs per second of time spent generating them, summed over all batches */
+    double getKeyPairsPerSecond();
+
+    void reset();
+}
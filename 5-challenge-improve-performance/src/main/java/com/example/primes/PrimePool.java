@@ -0,0 +1,383 @@
+package com.example.primes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived reserve of ready primes, kept topped up by background threads.
+ *
+ * Each bit length gets its own bounded queue. Whenever a queue drops below
+ * the low-water mark, refill workers are started on the pool's executor and
+ * keep generating until the queue is full again, so callers normally get a
+ * prime straight out of the queue instead of paying for generation.
+ *
+ * With a store directory, every generated prime is also written to a
+ * {@link PrimeStore} before it is queued, and is only marked consumed there
+ * when a caller takes it. Refills draw on primes left in the store by earlier
+ * runs before generating new ones, so a restarted pool is warm immediately.
+ */
+public class PrimePool implements AutoCloseable {
+
+    private static final int DEFAULT_BITS = 2000;
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final int DEFAULT_LOW_WATER_MARK = 16;
+    // How often blocked subscribers re-check for cancellation and close
+    private static final long SUBSCRIBER_POLL_MILLIS = 100;
+    // Queued by close() to wake blocked takers; never a prime, and compared by identity
+    private static final BigInteger CLOSED = new BigInteger("0");
+
+    private final int capacity;
+    private final int lowWaterMark;
+    private final int refillThreads;
+    private final ExecutorService refillExecutor;
+    // Directory holding one store file per bit length, or null to keep primes in memory only
+    private final Path storeDirectory;
+    private final Map<Integer, Reserve> reserves = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public PrimePool() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOW_WATER_MARK, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param capacity      maximum number of ready primes kept per bit length
+     * @param lowWaterMark  refill starts when fewer than this many primes remain
+     * @param refillThreads number of background threads generating primes
+     */
+    public PrimePool(int capacity, int lowWaterMark, int refillThreads) {
+        this(capacity, lowWaterMark, refillThreads, null);
+    }
+
+    /**
+     * @param storeDirectory directory for the persistent prime stores, or null for none
+     */
+    public PrimePool(int capacity, int lowWaterMark, int refillThreads, Path storeDirectory) {
+        if (capacity <= 0 || lowWaterMark < 0 || lowWaterMark > capacity || refillThreads <= 0) {
+            throw new IllegalArgumentException("Require capacity > 0, 0 <= lowWaterMark <= capacity and refillThreads > 0");
+        }
+        this.capacity = capacity;
+        this.lowWaterMark = lowWaterMark;
+        this.refillThreads = refillThreads;
+        this.storeDirectory = storeDirectory;
+        this.refillExecutor = Executors.newFixedThreadPool(refillThreads, runnable -> {
+            Thread thread = new Thread(runnable, "prime-pool-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reserve(DEFAULT_BITS);
+    }
+
+    /**
+     * Start filling the reserve for a bit length ahead of its first use.
+     */
+    public void prefill(int bitLength) {
+        reserve(bitLength);
+    }
+
+    public BigInteger take() throws InterruptedException {
+        return take(DEFAULT_BITS);
+    }
+
+    /**
+     * Remove a prime of the given bit length, waiting for one if the reserve is empty.
+     *
+     * @throws IllegalStateException if the pool is closed, including while waiting
+     */
+    public BigInteger take(int bitLength) throws InterruptedException {
+        Reserve reserve = reserve(bitLength);
+        BigInteger prime = reserve.checkOpen(reserve.primes.take());
+        reserve.refillIfLow();
+        return reserve.handOut(prime);
+    }
+
+    public BigInteger poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return poll(DEFAULT_BITS, timeout, unit);
+    }
+
+    /**
+     * Remove a prime of the given bit length, waiting up to the timeout.
+     *
+     * @return the prime, or null if none became available in time
+     * @throws IllegalStateException if the pool is closed, including while waiting
+     */
+    public BigInteger poll(int bitLength, long timeout, TimeUnit unit) throws InterruptedException {
+        Reserve reserve = reserve(bitLength);
+        BigInteger prime = reserve.checkOpen(reserve.primes.poll(timeout, unit));
+        reserve.refillIfLow();
+        return prime == null ? null : reserve.handOut(prime);
+    }
+
+    /**
+     * Number of ready primes currently held for a bit length.
+     */
+    public int available(int bitLength) {
+        Reserve reserve = reserves.get(bitLength);
+        return reserve == null ? 0 : reserve.primes.size();
+    }
+
+    public Flow.Publisher<BigInteger> publisher() {
+        return publisher(DEFAULT_BITS);
+    }
+
+    /**
+     * Unbounded stream of primes of the given bit length. Primes are only taken
+     * from the reserve when the subscriber has requested them, and each
+     * subscription is served by its own virtual thread.
+     */
+    public Flow.Publisher<BigInteger> publisher(int bitLength) {
+        Reserve reserve = reserve(bitLength);
+        return subscriber -> subscriber.onSubscribe(new PrimeSubscription(reserve, subscriber));
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        refillExecutor.shutdownNow();
+        // Primes still queued were never handed out, so their records stay available for the next run
+        reserves.values().forEach(Reserve::closeStore);
+        reserves.values().forEach(Reserve::wakeWaiters);
+    }
+
+    private Reserve reserve(int bitLength) {
+        if (closed) {
+            throw new IllegalStateException("Prime pool has been closed");
+        }
+        return reserves.computeIfAbsent(bitLength, bits -> {
+            Reserve reserve = new Reserve(new PrimeGenerator(bits), openStore(bits));
+            reserve.refill();
+            return reserve;
+        });
+    }
+
+    private PrimeStore openStore(int bitLength) {
+        if (storeDirectory == null) {
+            return null;
+        }
+        try {
+            return PrimeStore.open(storeDirectory.resolve("primes-" + bitLength + ".bin"), bitLength);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open prime store for " + bitLength + " bits", e);
+        }
+    }
+
+    // Ready primes and refill state for one bit length
+    private final class Reserve {
+        private final PrimeGenerator generator;
+        private final PrimeStore store;
+        private final BlockingQueue<BigInteger> primes = new ArrayBlockingQueue<>(capacity);
+        // Store record of every queued prime, when there is a store
+        private final Map<BigInteger, Long> records = new ConcurrentHashMap<>();
+        private final AtomicInteger activeWorkers = new AtomicInteger();
+
+        Reserve(PrimeGenerator generator, PrimeStore store) {
+            this.generator = generator;
+            this.store = store;
+        }
+
+        // Mark the prime's record consumed before it leaves the pool, so no restart can hand it out again
+        BigInteger handOut(BigInteger prime) {
+            Long record = records.remove(prime);
+            if (record != null) {
+                try {
+                    store.consume(record);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot update prime store", e);
+                }
+            }
+            return prime;
+        }
+
+        // A stored prime left over from an earlier run if there is one, otherwise a new prime, persisted first
+        private BigInteger nextPrime() throws IOException {
+            if (store == null) {
+                return generator.getPrime();
+            }
+            PrimeStore.Entry stored = store.poll();
+            if (stored != null) {
+                records.put(stored.prime(), stored.index());
+                return stored.prime();
+            }
+            BigInteger prime = generator.getPrime();
+            records.put(prime, store.append(prime));
+            return prime;
+        }
+
+        // Put back the record of a prime that did not fit in the queue
+        private void giveBack(BigInteger prime) {
+            Long record = records.remove(prime);
+            if (record != null) {
+                store.release(record);
+            }
+        }
+
+        // Pass the close marker on so every blocked caller sees it, then fail this one
+        BigInteger checkOpen(BigInteger prime) {
+            if (prime == CLOSED) {
+                primes.offer(CLOSED);
+                throw new IllegalStateException("Prime pool has been closed");
+            }
+            return prime;
+        }
+
+        // Makes room by dropping ready primes if need be; their store records stay unconsumed
+        void wakeWaiters() {
+            while (!primes.offer(CLOSED)) {
+                primes.poll();
+            }
+        }
+
+        void closeStore() {
+            if (store != null) {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    // Nothing left to flush: every write is forced as it happens
+                }
+            }
+        }
+
+        void refillIfLow() {
+            if (primes.size() < lowWaterMark) {
+                refill();
+            }
+        }
+
+        // Bring the number of workers up to refillThreads, never beyond what is missing
+        void refill() {
+            while (!closed) {
+                int workers = activeWorkers.get();
+                int missing = primes.remainingCapacity();
+                if (workers >= Math.min(refillThreads, missing)) {
+                    return;
+                }
+                if (activeWorkers.compareAndSet(workers, workers + 1)) {
+                    try {
+                        refillExecutor.execute(this::fill);
+                    } catch (RejectedExecutionException e) {
+                        // Lost a race with close()
+                        activeWorkers.decrementAndGet();
+                        return;
+                    }
+                }
+            }
+        }
+
+        // One prime per task, then requeue, so reserves of different bit lengths share the threads fairly
+        private void fill() {
+            boolean requeued = false;
+            try {
+                if (!closed && primes.remainingCapacity() > 0) {
+                    // A prime generated while the queue filled up is dropped, or given back to the store
+                    BigInteger prime = nextPrime();
+                    if (!primes.offer(prime)) {
+                        giveBack(prime);
+                    }
+                    if (!closed && primes.remainingCapacity() > 0) {
+                        refillExecutor.execute(this::fill);
+                        requeued = true;
+                    }
+                }
+            } catch (RejectedExecutionException | CancellationException e) {
+                // Pool closed while this worker was generating
+            } catch (IOException e) {
+                // A failing store stops this worker; the next take starts another one
+                if (!closed) {
+                    throw new UncheckedIOException("Cannot update prime store", e);
+                }
+            } finally {
+                if (!requeued) {
+                    activeWorkers.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    // Delivers primes only against outstanding demand, so a slow subscriber is never flooded
+    private final class PrimeSubscription implements Flow.Subscription {
+        private final Reserve reserve;
+        private final Flow.Subscriber<? super BigInteger> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private volatile boolean cancelled;
+
+        PrimeSubscription(Reserve reserve, Flow.Subscriber<? super BigInteger> subscriber) {
+            this.reserve = reserve;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (cancelled) {
+                return;
+            }
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requested count must be positive: " + n));
+                return;
+            }
+            long previous = demand.getAndAccumulate(n, (current, added) -> {
+                long total = current + added;
+                return total < 0 ? Long.MAX_VALUE : total;
+            });
+            // Only the request that lifts demand off zero starts a drain
+            if (previous == 0) {
+                Thread.ofVirtual().name("prime-pool-subscriber").start(this::drain);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void drain() {
+            long delivered = 0;
+            try {
+                while (!cancelled) {
+                    if (delivered == demand.get()) {
+                        if (demand.addAndGet(-delivered) == 0) {
+                            return;
+                        }
+                        delivered = 0;
+                    }
+                    if (closed) {
+                        cancelled = true;
+                        subscriber.onError(new IllegalStateException("Prime pool has been closed"));
+                        return;
+                    }
+                    BigInteger prime = reserve.checkOpen(
+                            reserve.primes.poll(SUBSCRIBER_POLL_MILLIS, TimeUnit.MILLISECONDS));
+                    reserve.refillIfLow();
+                    if (prime == null) {
+                        continue;
+                    }
+                    if (cancelled) {
+                        reserve.primes.offer(prime);
+                        return;
+                    }
+                    subscriber.onNext(reserve.handOut(prime));
+                    delivered++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            } catch (RuntimeException e) {
+                cancelled = true;
+                subscriber.onError(e);
+            }
+        }
+    }
+}
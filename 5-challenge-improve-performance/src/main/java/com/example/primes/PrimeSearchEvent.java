@@ -0,0 +1,33 @@
+package com.example.primes;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event covering one sieve search from a random base, which is all of a
+ * PrimeTask unless the search runs out of bit length. JFR records the
+ * duration and the thread, so per-thread task times can be read from a
+ * recording.
+ */
+@Name("com.example.primes.PrimeSearch")
+@Label("Prime Search")
+@Category("Prime Generator")
+@Description("Sieve search for a probable prime from one random base")
+final class PrimeSearchEvent extends Event {
+
+    @Label("Bit Length")
+    int bitLength;
+
+    @Label("Candidates Sieved")
+    long candidatesSieved;
+
+    @Label("Candidates Tested")
+    long candidatesTested;
+
+    @Label("Found")
+    @Description("False if the search ran past the bit length or was cancelled")
+    boolean found;
+}
@@ -0,0 +1,327 @@
+package com.example.primes;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Durable reserve of primes of one bit length, kept in a file of fixed-size
+ * records so that a restarted process can hand out primes generated by the
+ * previous one.
+ *
+ * The file is a 32 byte header followed by records of one state byte, the
+ * big-endian magnitude and a CRC32 of the magnitude. Records are appended and
+ * forced to disk before they are reported as stored, and a record is marked
+ * consumed on disk before its prime is handed out, so a crash can lose primes
+ * but never hands the same prime out twice. Existing records are read through
+ * a memory mapping, their checksums are verified in place, and a prime is only
+ * decoded into a BigInteger when its record is polled.
+ *
+ * The header counts the records consumed so far. When at least half of the
+ * records are consumed, opening the store compacts it: the available records
+ * with a valid checksum are copied to a new file, which then replaces the old
+ * one in a single rename. Torn records are skipped when polled and dropped by
+ * the next compaction.
+ */
+public class PrimeStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x50524D53; // "PRMS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    // Header field counting consumed records, zero in files that predate it
+    private static final int CONSUMED_COUNT_OFFSET = 16;
+
+    private static final byte AVAILABLE = 1;
+    private static final byte CONSUMED = 2;
+    // Records copied per write while compacting
+    private static final int COMPACT_BATCH = 1024;
+
+    /**
+     * A stored prime and the index of its record.
+     */
+    public record Entry(long index, BigInteger prime) {
+    }
+
+    private final int bitLength;
+    private final int magnitudeSize;
+    private final int recordSize;
+    private final FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long records;
+    private long consumed;
+    private final CRC32 crc = new CRC32();
+    // First record not yet polled in this process
+    private long cursor;
+    // Polled records given back with release(), served again before the cursor moves on
+    private final Deque<Long> released = new ArrayDeque<>();
+    // Records appended behind the cursor; their primes are already held by whoever appended them
+    private final Set<Long> appended = new HashSet<>();
+
+    private PrimeStore(int bitLength, FileChannel channel) {
+        this.bitLength = bitLength;
+        this.magnitudeSize = (bitLength + 7) / 8;
+        this.recordSize = 1 + magnitudeSize + 4;
+        this.channel = channel;
+    }
+
+    /**
+     * Open or create the store file for primes of the given bit length.
+     *
+     * @throws IOException if the file cannot be opened or was written for another bit length
+     */
+    public static PrimeStore open(Path file, int bitLength) throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        // Left behind by a crash during compaction; the original file is still complete
+        Files.deleteIfExists(compacted);
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            PrimeStore store = new PrimeStore(bitLength, channel);
+            store.recover();
+            if (store.consumed == 0 || store.consumed * 2 < store.records) {
+                return store;
+            }
+            store.compactInto(compacted);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            PrimeStore store = new PrimeStore(bitLength, channel);
+            store.recover();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getBitLength() {
+        return bitLength;
+    }
+
+    /**
+     * Number of records that have neither been consumed nor polled in this process.
+     */
+    public synchronized long available() throws IOException {
+        long count = released.size();
+        for (long index = cursor; index < records; index++) {
+            if (!appended.contains(index) && state(index) == AVAILABLE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Append a prime and force it to disk. The new record counts as already
+     * polled, since the caller holds the prime.
+     *
+     * @return the index of the new record
+     */
+    public synchronized long append(BigInteger prime) throws IOException {
+        if (prime.signum() <= 0 || prime.bitLength() != bitLength) {
+            throw new IllegalArgumentException("Expected a positive " + bitLength + " bit value");
+        }
+        byte[] magnitude = magnitude(prime);
+        ByteBuffer record = ByteBuffer.allocate(recordSize);
+        record.put(AVAILABLE).put(magnitude).putInt(checksum(magnitude)).flip();
+
+        long index = records;
+        long position = offset(index);
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        channel.force(false);
+        records++;
+        if (cursor == index) {
+            cursor++;
+        } else {
+            appended.add(index);
+        }
+        return index;
+    }
+
+    /**
+     * Take the next available record without marking it consumed.
+     *
+     * @return the entry, or null if every record has been consumed or polled
+     */
+    public synchronized Entry poll() throws IOException {
+        Long again = released.poll();
+        if (again != null) {
+            return new Entry(again, decode(again));
+        }
+        while (cursor < records) {
+            long index = cursor++;
+            // A torn write leaves a record whose checksum does not match; skip it
+            if (!appended.remove(index) && state(index) == AVAILABLE && checksumValid(index)) {
+                return new Entry(index, decode(index));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Put a polled record back so it is served again by poll().
+     */
+    public synchronized void release(long index) {
+        released.push(index);
+    }
+
+    /**
+     * Mark a record consumed and force the change to disk, so it is never
+     * served again, not even after a restart.
+     */
+    public synchronized void consume(long index) throws IOException {
+        if (state(index) == CONSUMED) {
+            return;
+        }
+        // Written through the channel: most consumed records were just appended, past the end of the mapping
+        writeFully(channel, ByteBuffer.wrap(new byte[] {CONSUMED}), offset(index));
+        consumed++;
+        // Only decides when to compact, so a count that lags after a crash does no harm
+        writeFully(channel, ByteBuffer.allocate(8).putLong(0, consumed), CONSUMED_COUNT_OFFSET);
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    // Validate the header and drop a partly written last record
+    private void recover() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            writeHeader(channel);
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (size >= HEADER_SIZE) {
+            while (header.hasRemaining()) {
+                channel.read(header, header.position());
+            }
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a prime store file");
+        }
+        int storedBits = header.getInt();
+        int storedRecordSize = header.getInt();
+        if (storedBits != bitLength || storedRecordSize != recordSize) {
+            throw new IOException("Prime store holds " + storedBits + " bit primes, expected " + bitLength);
+        }
+        consumed = header.getLong(CONSUMED_COUNT_OFFSET);
+
+        records = (size - HEADER_SIZE) / recordSize;
+        if (offset(records) != size) {
+            channel.truncate(offset(records));
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Copy the available records with a valid checksum to a new store file.
+     */
+    private void compactInto(Path file) throws IOException {
+        try (FileChannel out = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writeHeader(out);
+            ByteBuffer batch = ByteBuffer.allocate(COMPACT_BATCH * recordSize);
+            long position = HEADER_SIZE;
+            for (long index = 0; index < records; index++) {
+                if (state(index) != AVAILABLE || !checksumValid(index)) {
+                    continue;
+                }
+                batch.put(mapping(index).slice((int) offset(index), recordSize));
+                if (!batch.hasRemaining()) {
+                    position += writeFully(out, batch.flip(), position);
+                    batch.clear();
+                }
+            }
+            writeFully(out, batch.flip(), position);
+            out.force(true);
+        }
+    }
+
+    private void writeHeader(FileChannel out) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(bitLength).putInt(recordSize).position(HEADER_SIZE).flip();
+        writeFully(out, header, 0);
+        out.force(true);
+    }
+
+    private static int writeFully(FileChannel out, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += out.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private byte state(long index) throws IOException {
+        return mapping(index).get((int) offset(index));
+    }
+
+    // Compare a record's checksum over the mapped magnitude, without copying it out
+    private boolean checksumValid(long index) throws IOException {
+        MappedByteBuffer buffer = mapping(index);
+        int position = (int) offset(index) + 1;
+        crc.reset();
+        buffer.limit(position + magnitudeSize).position(position);
+        crc.update(buffer);
+        buffer.clear();
+        return buffer.getInt(position + magnitudeSize) == (int) crc.getValue();
+    }
+
+    private BigInteger decode(long index) throws IOException {
+        byte[] magnitude = new byte[magnitudeSize];
+        mapping(index).get((int) offset(index) + 1, magnitude);
+        return new BigInteger(1, magnitude);
+    }
+
+    // The mapping, remapped to the current file size if it does not cover the record yet
+    private MappedByteBuffer mapping(long index) throws IOException {
+        long end = offset(index + 1);
+        if (mapped == null || mapped.capacity() < end) {
+            long size = offset(records);
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Prime store larger than 2 GiB");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        return mapped;
+    }
+
+    private long offset(long index) {
+        return HEADER_SIZE + index * recordSize;
+    }
+
+    private byte[] magnitude(BigInteger prime) {
+        byte[] bytes = prime.toByteArray();
+        // toByteArray may add a leading sign byte
+        return Arrays.copyOfRange(bytes, bytes.length - magnitudeSize, bytes.length);
+    }
+
+    private static int checksum(byte[] magnitude) {
+        CRC32 crc = new CRC32();
+        crc.update(magnitude);
+        return (int) crc.getValue();
+    }
+}
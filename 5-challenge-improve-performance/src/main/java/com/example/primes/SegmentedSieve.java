@@ -0,0 +1,200 @@
+package com.example.primes;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Segmented sieve of Eratosthenes over a range of longs. Each segment holds
+ * odd numbers only, one bit each, and is sized to stay in L2 cache. Segments
+ * are sieved in parallel on a fork-join pool a bounded number ahead of the
+ * consumer, so memory use depends on the segment size and the parallelism
+ * but not on the length of the range.
+ */
+final class SegmentedSieve {
+
+    // 128 KiB of bits per segment, covering 2^20 odd numbers
+    private static final int SEGMENT_WORDS = 1 << 14;
+    private static final long SEGMENT_BITS = 64L * SEGMENT_WORDS;
+    private static final long SEGMENT_SPAN = 2 * SEGMENT_BITS;
+
+    // floor(sqrt(Long.MAX_VALUE)), so squaring anything up to it cannot overflow
+    private static final long MAX_ROOT = 3037000499L;
+
+    private static final ThreadLocal<long[]> SEGMENT = ThreadLocal.withInitial(() -> new long[SEGMENT_WORDS]);
+
+    private final long lo;
+    private final long hi;
+    private final ForkJoinPool pool;
+    // Odd primes up to sqrt(hi - 1), enough to sieve every segment
+    private final long[] basePrimes;
+
+    /**
+     * @param lo first value of the range, inclusive
+     * @param hi end of the range, exclusive
+     */
+    SegmentedSieve(long lo, long hi, ForkJoinPool pool) {
+        if (lo < 0 || hi < lo) {
+            throw new IllegalArgumentException("Require 0 <= lo <= hi, got [" + lo + ", " + hi + ")");
+        }
+        this.lo = lo;
+        this.hi = hi;
+        this.pool = pool;
+        this.basePrimes = oddPrimesUpTo(hi <= 1 ? 0 : sqrtFloor(hi - 1));
+    }
+
+    /**
+     * Primes of the range in ascending order, one packed array per segment.
+     * Closing the stream cancels segments that are still being sieved ahead.
+     */
+    Stream<long[]> chunks() {
+        SegmentIterator segments = new SegmentIterator();
+        Spliterator<long[]> spliterator = Spliterators.spliteratorUnknownSize(
+                segments, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        Stream<long[]> chunks = StreamSupport.stream(spliterator, false).onClose(segments::cancel);
+        // 2 is the only even prime, so it never appears in a segment
+        if (lo <= 2 && 2 < hi) {
+            return Stream.concat(Stream.of(new long[] {2}), chunks);
+        }
+        return chunks;
+    }
+
+    // Hands out segment results in order while keeping a fixed number of segments in flight
+    private final class SegmentIterator implements Iterator<long[]> {
+        private final Queue<CompletableFuture<long[]>> inFlight = new ArrayDeque<>();
+        private final int lookahead = 2 * pool.getParallelism();
+        // Next odd value not yet handed to a segment
+        private long next = Math.max(lo, 3) | 1;
+
+        SegmentIterator() {
+            fill();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !inFlight.isEmpty();
+        }
+
+        @Override
+        public long[] next() {
+            CompletableFuture<long[]> head = inFlight.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            long[] primes = head.join();
+            fill();
+            return primes;
+        }
+
+        void cancel() {
+            inFlight.forEach(future -> future.cancel(false));
+            inFlight.clear();
+        }
+
+        private void fill() {
+            while (inFlight.size() < lookahead && next < hi) {
+                long segmentLo = next;
+                long segmentHi = hi - segmentLo <= SEGMENT_SPAN ? hi : segmentLo + SEGMENT_SPAN;
+                inFlight.add(CompletableFuture.supplyAsync(() -> sieveSegment(segmentLo, segmentHi), pool));
+                next = segmentHi;
+            }
+        }
+    }
+
+    // Odd primes in [segmentLo, segmentHi), where segmentLo is odd; bit i stands for segmentLo + 2i
+    private long[] sieveSegment(long segmentLo, long segmentHi) {
+        long[] composite = SEGMENT.get();
+        int bits = (int) ((segmentHi - segmentLo + 1) >>> 1);
+        int words = (bits + 63) >>> 6;
+        Arrays.fill(composite, 0, words, 0L);
+        // Bits past the end of the segment in the last word are marked so they are never reported
+        if ((bits & 63) != 0) {
+            composite[words - 1] = -1L << (bits & 63);
+        }
+
+        for (long p : basePrimes) {
+            long square = p * p;
+            if (square >= segmentHi) {
+                break;
+            }
+            long start = square;
+            if (start < segmentLo) {
+                start = (segmentLo + p - 1) / p * p;
+                if ((start & 1) == 0) {
+                    start += p;
+                }
+            }
+            // Odd multiples are 2p apart, which is p bits in the odd-only layout
+            for (long bit = (start - segmentLo) >>> 1; bit < bits; bit += p) {
+                composite[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(~composite[w]);
+        }
+        long[] primes = new long[count];
+        int index = 0;
+        for (int w = 0; w < words; w++) {
+            long clear = ~composite[w];
+            while (clear != 0) {
+                int bit = Long.numberOfTrailingZeros(clear);
+                primes[index++] = segmentLo + 2 * (64L * w + bit);
+                clear &= clear - 1;
+            }
+        }
+        return primes;
+    }
+
+    private static long sqrtFloor(long n) {
+        long root = (long) Math.sqrt((double) n);
+        while (root * root > n) {
+            root--;
+        }
+        while (root < MAX_ROOT && (root + 1) * (root + 1) <= n) {
+            root++;
+        }
+        return root;
+    }
+
+    // Plain odd-only sieve of Eratosthenes for the base primes
+    private static long[] oddPrimesUpTo(long limit) {
+        if (limit < 3) {
+            return new long[0];
+        }
+        if (limit > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Range end too large to sieve: base primes up to " + limit);
+        }
+        int size = (int) ((limit - 1) >>> 1);
+        // index i stands for 2i + 3
+        boolean[] composite = new boolean[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (!composite[i]) {
+                count++;
+                long p = 2L * i + 3;
+                for (long j = (p * p - 3) >>> 1; j < size; j += p) {
+                    composite[(int) j] = true;
+                }
+            }
+        }
+
+        long[] primes = new long[count];
+        int index = 0;
+        for (int i = 0; i < size; i++) {
+            if (!composite[i]) {
+                primes[index++] = 2L * i + 3;
+            }
+        }
+        return primes;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.primes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BatchPrimalityCheckTest {
+
+    @Test
+    public void resultsAgreeWithBigIntegerInInputOrder() {
+        Random random = new Random(10);
+        List<BigInteger> values = new ArrayList<>();
+        for (int bits : new int[] {2, 17, 63, 64, 65, 100, 512, 1024}) {
+            for (int i = 0; i < 40; i++) {
+                BigInteger n = new BigInteger(bits, random);
+                values.add(i % 2 == 0 ? n.nextProbablePrime() : n);
+            }
+        }
+        List<Boolean> results = new PrimeGenerator(512).checkAll(values);
+        assertEquals(values.size(), results.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i).isProbablePrime(100), results.get(i).booleanValue(), "value " + values.get(i));
+        }
+    }
+
+    @Test
+    public void untrustedValuesGetFiftyRoundsWhateverTheGeneratorUses() {
+        PrimeMetrics metrics = PrimeMetrics.global();
+        // 2^521 - 1 is prime, so every round runs
+        BigInteger prime = BigInteger.TWO.pow(521).subtract(BigInteger.ONE);
+        long before = metrics.getMillerRabinRounds();
+        assertEquals(List.of(true), new PrimeGenerator(1024, 1, null).checkAll(List.of(prime)));
+        assertEquals(BatchPrimalityCheck.ROUNDS, metrics.getMillerRabinRounds() - before);
+    }
+
+    @Test
+    public void strongPseudoprimesToSmallBasesAreRejected() {
+        List<BigInteger> composites = List.of(
+                // Strong pseudoprime to every prime base up to 37
+                new BigInteger("318665857834031151167461"),
+                new BigInteger("3317044064679887385961981"),
+                // Strong pseudoprime to every prime base up to 11, tested on the 64-bit path
+                BigInteger.valueOf(2152302898747L));
+        assertEquals(List.of(false, false, false), new PrimeGenerator(512).checkAll(composites));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.primes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class CandidateSieveTest {
+
+    // Odd candidates per window, as in CandidateSieve
+    private static final int WINDOW_SIZE = 4096;
+
+    @Test
+    public void sequentialSearchFindsTheNextPrime() {
+        Random random = new Random(20261017);
+        for (int bits : new int[] {24, 64, 256, 512}) {
+            CandidateSieve sieve = new CandidateSieve(bits);
+            for (int i = 0; i < 20; i++) {
+                BigInteger base = sieve.randomOddBase(random);
+                assertEquals(expected(base, 0, 1, bits), sieve.search(base, 0, 1), bits + " bit base " + base);
+            }
+        }
+    }
+
+    @Test
+    public void stridedWorkersMatchASequentialSearch() {
+        Random random = new Random(17);
+        for (int bits : new int[] {24, 256}) {
+            CandidateSieve sieve = new CandidateSieve(bits);
+            for (int stride = 2; stride <= 5; stride++) {
+                for (int i = 0; i < 5; i++) {
+                    BigInteger base = sieve.randomOddBase(random);
+                    BigInteger first = null;
+                    for (int worker = 0; worker < stride; worker++) {
+                        BigInteger found = sieve.search(base, worker, stride);
+                        assertEquals(expected(base, worker, stride, bits), found,
+                                "worker " + worker + " of " + stride + " from " + base);
+                        if (found != null && (first == null || found.compareTo(first) < 0)) {
+                            first = found;
+                        }
+                    }
+                    assertEquals(sieve.search(base, 0, 1), first, "stride " + stride + " from " + base);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void stridedSophieGermainWorkersMatchASequentialSearch() {
+        // Sparse enough that many windows hold none, so workers step across windows
+        CandidateSieve sieve = new CandidateSieve(160);
+        Random random = new Random(5);
+        for (int stride = 1; stride <= 3; stride++) {
+            BigInteger base = sieve.randomOddBase(random);
+            BigInteger first = null;
+            for (int worker = 0; worker < stride; worker++) {
+                BigInteger found = sieve.searchSophieGermain(base, worker, stride);
+                assertEquals(expectedSophieGermain(base, worker, stride), found,
+                        "worker " + worker + " of " + stride + " from " + base);
+                if (first == null || found.compareTo(first) < 0) {
+                    first = found;
+                }
+            }
+            assertEquals(sieve.searchSophieGermain(base, 0, 1), first, "stride " + stride + " from " + base);
+        }
+    }
+
+    @Test
+    public void searchStopsAtTheTopOfTheBitLength() {
+        CandidateSieve sieve = new CandidateSieve(24);
+        BigInteger top = BigInteger.ONE.shiftLeft(24);
+        // The last 24-bit prime is 2^24 - 3
+        assertEquals(top.subtract(BigInteger.valueOf(3)), sieve.search(top.subtract(BigInteger.valueOf(5)), 0, 1));
+        assertNull(sieve.search(top.subtract(BigInteger.ONE), 0, 1));
+        assertNull(sieve.search(top.subtract(BigInteger.valueOf(99)), 1, 4));
+    }
+
+    @Test
+    public void metricsCountOnlyCandidatesUpToThePrimeFound() {
+        CandidateSieve sieve = new CandidateSieve(256);
+        PrimeMetrics metrics = PrimeMetrics.global();
+        Random random = new Random(9);
+        for (int i = 0; i < 20; i++) {
+            BigInteger base = sieve.randomOddBase(random);
+            long sieved = metrics.getCandidatesSieved();
+            long tested = metrics.getCandidatesTested();
+            BigInteger prime = sieve.search(base, 0, 1);
+            // Every odd value from base up to the prime was either sieved out or tested
+            long passed = prime.subtract(base).shiftRight(1).longValueExact() + 1;
+            assertEquals(passed, metrics.getCandidatesSieved() - sieved + metrics.getCandidatesTested() - tested,
+                    "from " + base);
+        }
+    }
+
+    @Test
+    public void cooperativePrimeHasTheRequestedLength() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            PrimeGenerator generator = new PrimeGenerator(512, executor);
+            for (int i = 0; i < 5; i++) {
+                BigInteger prime = generator.getPrimeCooperative(executor, 4);
+                assertEquals(512, prime.bitLength());
+                assertTrue(prime.isProbablePrime(100), "prime " + prime);
+            }
+        } finally {
+            // Cancelled workers publish their counts on the way out, so let them finish before other tests read metrics
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    // Smallest q with q and 2q + 1 prime in windows first, first + stride, ... above base
+    private static BigInteger expectedSophieGermain(BigInteger base, int first, int stride) {
+        for (long window = first; ; window += stride) {
+            BigInteger start = base.add(BigInteger.valueOf(2L * WINDOW_SIZE * window));
+            for (int k = 0; k < WINDOW_SIZE; k++) {
+                BigInteger q = start.add(BigInteger.valueOf(2L * k));
+                if (q.isProbablePrime(50) && q.shiftLeft(1).setBit(0).isProbablePrime(50)) {
+                    return q;
+                }
+            }
+        }
+    }
+
+    // Smallest prime in windows first, first + stride, ... above base, by plain BigInteger search
+    private static BigInteger expected(BigInteger base, int first, int stride, int bits) {
+        BigInteger windowSpan = BigInteger.valueOf(2L * WINDOW_SIZE);
+        for (long window = first; ; window += stride) {
+            BigInteger start = base.add(windowSpan.multiply(BigInteger.valueOf(window)));
+            if (start.bitLength() > bits) {
+                return null;
+            }
+            BigInteger prime = start.subtract(BigInteger.ONE).nextProbablePrime();
+            if (prime.bitLength() > bits) {
+                return null;
+            }
+            if (prime.compareTo(start.add(windowSpan)) < 0) {
+                return prime;
+            }
+        }
+    }
+}
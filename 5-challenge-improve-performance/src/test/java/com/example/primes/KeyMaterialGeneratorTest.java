@@ -0,0 +1,51 @@
+package com.example.primes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class KeyMaterialGeneratorTest {
+
+    @Test
+    public void safePrimesHaveTheRequestedLengthAndPrimeHalf() {
+        for (int bits : new int[] {64, 256, 512}) {
+            List<KeyMaterialGenerator.SafePrime> safePrimes = new KeyMaterialGenerator(bits).safePrimes(3);
+            assertEquals(3, safePrimes.size());
+            for (KeyMaterialGenerator.SafePrime safePrime : safePrimes) {
+                BigInteger p = safePrime.p();
+                BigInteger q = safePrime.q();
+                assertEquals(bits, p.bitLength(), "p " + p);
+                assertEquals(q, p.subtract(BigInteger.ONE).shiftRight(1), "q of " + p);
+                assertTrue(p.isProbablePrime(100), "p " + p);
+                assertTrue(q.isProbablePrime(100), "(p - 1) / 2 of " + p);
+            }
+        }
+    }
+
+    @Test
+    public void rsaPrimesGiveAModulusOfTheRequestedLength() {
+        BigInteger e = KeyMaterialGenerator.DEFAULT_PUBLIC_EXPONENT;
+        for (int bits : new int[] {64, 512, 1024}) {
+            for (KeyMaterialGenerator.RsaPrimes primes : new KeyMaterialGenerator(bits).rsaPrimes(3)) {
+                assertEquals(bits, primes.modulus().bitLength(), "modulus " + primes.modulus());
+                for (BigInteger prime : List.of(primes.p(), primes.q())) {
+                    assertEquals(bits / 2, prime.bitLength());
+                    assertTrue(prime.isProbablePrime(100), "prime " + prime);
+                    assertEquals(BigInteger.ONE, prime.subtract(BigInteger.ONE).gcd(e));
+                }
+                assertFalse(primes.p().equals(primes.q()));
+            }
+        }
+    }
+
+    @Test
+    public void invalidParametersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new KeyMaterialGenerator(15));
+        assertThrows(IllegalArgumentException.class, () -> new KeyMaterialGenerator(63));
+        assertThrows(IllegalArgumentException.class,
+                () -> new KeyMaterialGenerator(64, BigInteger.valueOf(4), null));
+    }
+}
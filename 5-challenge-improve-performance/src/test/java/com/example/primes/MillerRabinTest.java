@@ -0,0 +1,64 @@
+package com.example.primes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class MillerRabinTest {
+
+    private final MillerRabin engine = new MillerRabin(0);
+
+    @Test
+    public void agreesWithBigIntegerOnSmallValues() {
+        for (int i = 0; i < 100_000; i++) {
+            BigInteger n = BigInteger.valueOf(i);
+            assertEquals(n.isProbablePrime(100), engine.isProbablePrime(n), "value " + i);
+        }
+    }
+
+    @Test
+    public void agreesWithBigIntegerOnRandomValues() {
+        Random random = new Random(20261017);
+        int[] bitLengths = {31, 32, 33, 62, 63, 64, 65, 127, 128, 256, 512, 1024, 2000};
+        for (int bits : bitLengths) {
+            int samples = bits > 600 ? 20 : 500;
+            for (int i = 0; i < samples; i++) {
+                BigInteger n = new BigInteger(bits, random);
+                // Half the corpus is primes, which random values of this size would almost never be
+                if (i % 2 == 0) {
+                    n = n.nextProbablePrime();
+                }
+                assertEquals(n.isProbablePrime(100), engine.isProbablePrime(n), bits + " bit value " + n);
+            }
+        }
+    }
+
+    @Test
+    public void rejectsCarmichaelNumbersAndStrongPseudoprimes() {
+        long[] composites = {
+                561, 1105, 1729, 2465, 2821, 6601, 8911,
+                // Strong pseudoprimes to every prime base up to 11, 13, 17 and 23 respectively
+                2152302898747L, 3474749660383L, 341550071728321L, 3825123056546413051L
+        };
+        for (long n : composites) {
+            assertFalse(engine.isProbablePrime(n), "composite " + n);
+        }
+        assertFalse(engine.isProbablePrime(new BigInteger("3317044064679887385961981")));
+    }
+
+    @Test
+    public void handlesValuesUsingAllSixtyFourBits() {
+        assertTrue(engine.isProbablePrime(new BigInteger("18446744073709551557")), "2^64 - 59");
+        assertFalse(engine.isProbablePrime(new BigInteger("18446744073709551615")), "2^64 - 1");
+        assertTrue(engine.isProbablePrime(BigInteger.TWO.pow(127).subtract(BigInteger.ONE)), "2^127 - 1");
+    }
+
+    @Test
+    public void configuredRoundsAreUsed() {
+        assertEquals(3, new MillerRabin(3).rounds());
+        assertThrows(IllegalArgumentException.class, () -> new MillerRabin(-1));
+    }
+}
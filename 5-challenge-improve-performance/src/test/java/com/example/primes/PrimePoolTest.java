@@ -0,0 +1,62 @@
+package com.example.primes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class PrimePoolTest {
+
+    @Test
+    public void takeReturnsDistinctPrimesOfTheRequestedLength() throws InterruptedException {
+        try (PrimePool pool = new PrimePool(4, 2, 2)) {
+            Set<BigInteger> taken = new HashSet<>();
+            for (int i = 0; i < 10; i++) {
+                BigInteger prime = pool.take(128);
+                assertEquals(128, prime.bitLength());
+                assertTrue(prime.isProbablePrime(100), "prime " + prime);
+                taken.add(prime);
+            }
+            assertEquals(10, taken.size());
+        }
+    }
+
+    @Test
+    public void closeWakesBlockedTakers() throws Exception {
+        PrimePool pool = new PrimePool(1, 0, 1);
+        // Large enough that the single refill thread keeps the takers waiting
+        pool.prefill(1536);
+        CompletableFuture<?>[] takers = new CompletableFuture<?>[3];
+        for (int i = 0; i < takers.length; i++) {
+            takers[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    while (true) {
+                        pool.take(1536);
+                    }
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+        }
+        Thread.sleep(200);
+        pool.close();
+        for (CompletableFuture<?> taker : takers) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> taker.get(10, TimeUnit.SECONDS));
+            assertTrue(failure.getCause() instanceof IllegalStateException, "cause " + failure.getCause());
+        }
+    }
+
+    @Test
+    public void takeAndPollFailOnceClosed() {
+        PrimePool pool = new PrimePool(2, 1, 1);
+        pool.close();
+        assertThrows(IllegalStateException.class, () -> pool.take(128));
+        assertThrows(IllegalStateException.class, () -> pool.poll(128, 0, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.primes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PrimeStoreTest {
+
+    private static final int BITS = 64;
+    // 32 byte header; records of a state byte, 8 magnitude bytes and a CRC32
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 1 + 8 + 4;
+
+    private final Random random = new Random(8);
+
+    @Test
+    public void appendedPrimesAreServedAfterRestart(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("primes.bin");
+        List<BigInteger> primes = primes(5);
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            for (BigInteger prime : primes) {
+                store.append(prime);
+            }
+            assertEquals(0, store.available(), "appended records are held by the appender");
+            assertNull(store.poll());
+        }
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            assertEquals(5, store.available());
+            assertEquals(primes, pollAll(store));
+        }
+    }
+
+    @Test
+    public void consumedRecordsAreSkippedAndCompactedAway(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("primes.bin");
+        List<BigInteger> primes = primes(6);
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            for (BigInteger prime : primes) {
+                long index = store.append(prime);
+                if (index % 2 == 0) {
+                    store.consume(index);
+                }
+            }
+        }
+        assertEquals(HEADER_SIZE + 6 * RECORD_SIZE, Files.size(file));
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            assertEquals(HEADER_SIZE + 3 * RECORD_SIZE, Files.size(file));
+            assertEquals(List.of(primes.get(1), primes.get(3), primes.get(5)), pollAll(store));
+        }
+    }
+
+    @Test
+    public void consumedRecordsAreNeverServedAgain(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("primes.bin");
+        List<BigInteger> primes = primes(4);
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            for (BigInteger prime : primes) {
+                store.append(prime);
+            }
+        }
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            PrimeStore.Entry first = store.poll();
+            store.consume(first.index());
+            // Polled but neither consumed nor released: still available after a restart
+            store.poll();
+        }
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            assertEquals(primes.subList(1, 4), pollAll(store));
+        }
+    }
+
+    @Test
+    public void partlyWrittenLastRecordIsDropped(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("primes.bin");
+        List<BigInteger> primes = primes(3);
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            for (BigInteger prime : primes) {
+                store.append(prime);
+            }
+        }
+        // A crash in the middle of an append leaves the start of a record behind
+        byte[] torn = {1, 0x7F, 0x12, 0x34, 0x56, 0x78};
+        Files.write(file, torn, StandardOpenOption.APPEND);
+        List<BigInteger> expected = new ArrayList<>(primes);
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            assertEquals(HEADER_SIZE + 3 * RECORD_SIZE, Files.size(file));
+            // The next append lands where the torn record started
+            expected.add(primes(1).get(0));
+            store.append(expected.get(3));
+        }
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            assertEquals(expected, pollAll(store));
+        }
+    }
+
+    @Test
+    public void recordWithBadChecksumIsSkipped(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("primes.bin");
+        List<BigInteger> primes = primes(3);
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            for (BigInteger prime : primes) {
+                store.append(prime);
+            }
+        }
+        // Flip a magnitude byte of the middle record, as a torn overwrite would
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            long position = HEADER_SIZE + RECORD_SIZE + 3;
+            channel.read(value, position);
+            value.put(0, (byte) ~value.get(0)).rewind();
+            channel.write(value, position);
+        }
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            // Nothing consumed yet, so the torn record stays until a compaction is due
+            assertEquals(HEADER_SIZE + 3 * RECORD_SIZE, Files.size(file));
+            PrimeStore.Entry first = store.poll();
+            PrimeStore.Entry last = store.poll();
+            assertEquals(List.of(primes.get(0), primes.get(2)), List.of(first.prime(), last.prime()));
+            assertNull(store.poll());
+            store.consume(first.index());
+            store.consume(last.index());
+        }
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            assertEquals(HEADER_SIZE, Files.size(file));
+            assertNull(store.poll());
+        }
+    }
+
+    @Test
+    public void compactionWaitsUntilHalfTheRecordsAreConsumed(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("primes.bin");
+        List<BigInteger> primes = primes(4);
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            for (BigInteger prime : primes) {
+                store.append(prime);
+            }
+            store.consume(0);
+            // Consuming a record twice counts once
+            store.consume(0);
+        }
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            assertEquals(HEADER_SIZE + 4 * RECORD_SIZE, Files.size(file));
+            store.consume(store.poll().index());
+        }
+        try (PrimeStore store = PrimeStore.open(file, BITS)) {
+            assertEquals(HEADER_SIZE + 2 * RECORD_SIZE, Files.size(file));
+            assertEquals(primes.subList(2, 4), pollAll(store));
+        }
+    }
+
+    @Test
+    public void releasedRecordsAreServedAgain(@TempDir Path dir) throws IOException {
+        try (PrimeStore store = PrimeStore.open(dir.resolve("primes.bin"), BITS)) {
+            BigInteger prime = primes(1).get(0);
+            long index = store.append(prime);
+            store.release(index);
+            assertEquals(1, store.available());
+            PrimeStore.Entry entry = store.poll();
+            assertEquals(index, entry.index());
+            assertEquals(prime, entry.prime());
+            assertNull(store.poll());
+        }
+    }
+
+    @Test
+    public void fileForAnotherBitLengthIsRejected(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("primes.bin");
+        PrimeStore.open(file, BITS).close();
+        assertThrows(IOException.class, () -> PrimeStore.open(file, 128));
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> PrimeStore.open(file, BITS));
+    }
+
+    private List<BigInteger> primes(int count) {
+        List<BigInteger> primes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            primes.add(BigInteger.probablePrime(BITS, random));
+        }
+        return primes;
+    }
+
+    private static List<BigInteger> pollAll(PrimeStore store) throws IOException {
+        List<BigInteger> primes = new ArrayList<>();
+        for (PrimeStore.Entry entry = store.poll(); entry != null; entry = store.poll()) {
+            primes.add(entry.prime());
+        }
+        return primes;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.primes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+class SegmentedSieveTest {
+
+    // Values covered by one segment, as in SegmentedSieve
+    private static final long SEGMENT_SPAN = 1L << 21;
+
+    private final ForkJoinPool pool = new ForkJoinPool(3);
+
+    @Test
+    public void smallRangesMatchBigInteger() {
+        for (long lo = 0; lo < 40; lo++) {
+            for (long hi = lo; hi < lo + 60; hi++) {
+                assertArrayEquals(primesByBigInteger(lo, hi), primes(lo, hi), "[" + lo + ", " + hi + ")");
+            }
+        }
+    }
+
+    @Test
+    public void rangeAcrossSegmentBoundariesMatchesBigInteger() {
+        // Even and odd ends, with the last segment partial
+        long[][] ranges = {
+                {1L << 40, (1L << 40) + 2 * SEGMENT_SPAN + 1001},
+                {(1L << 40) + 1, (1L << 40) + SEGMENT_SPAN},
+                {(1L << 40) + 6, (1L << 40) + SEGMENT_SPAN + 2},
+                {0, SEGMENT_SPAN + 99},
+        };
+        for (long[] range : ranges) {
+            long lo = range[0];
+            long hi = range[1];
+            long[] found = primes(lo, hi);
+            for (long p : found) {
+                assertTrue(p >= lo && p < hi && BigInteger.valueOf(p).isProbablePrime(4), "reported " + p);
+            }
+            // Walking the whole range with BigInteger takes minutes, so compare exactly where segments meet and at the end
+            long firstSegment = Math.max(lo, 3) | 1;
+            LongStream segmentStarts = LongStream.iterate(firstSegment, start -> start < hi, start -> start + SEGMENT_SPAN);
+            for (long boundary : LongStream.concat(segmentStarts, LongStream.of(hi)).toArray()) {
+                long from = Math.max(lo, boundary - 5000);
+                long to = Math.min(hi, boundary + 5000);
+                long[] near = LongStream.of(found).filter(p -> p >= from && p < to).toArray();
+                assertArrayEquals(primesByBigInteger(from, to), near, "[" + from + ", " + to + ") of [" + lo + ", " + hi + ")");
+            }
+        }
+    }
+
+    @Test
+    public void squaresOfBasePrimesAtTheRangeEndAreExcluded() {
+        // 1000003^2 is the top of the range, and 1000003 is the largest base prime it needs
+        long square = 1000003L * 1000003L;
+        assertArrayEquals(primesByBigInteger(square - 1000, square + 1), primes(square - 1000, square + 1));
+    }
+
+    @Test
+    public void invalidRangesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SegmentedSieve(-1, 10, pool));
+        assertThrows(IllegalArgumentException.class, () -> new SegmentedSieve(10, 9, pool));
+    }
+
+    private long[] primes(long lo, long hi) {
+        try (Stream<long[]> chunks = new SegmentedSieve(lo, hi, pool).chunks()) {
+            return chunks.flatMapToLong(LongStream::of).toArray();
+        }
+    }
+
+    private static long[] primesByBigInteger(long lo, long hi) {
+        LongStream.Builder primes = LongStream.builder();
+        BigInteger end = BigInteger.valueOf(hi);
+        for (BigInteger p = BigInteger.valueOf(lo - 1).max(BigInteger.ONE).nextProbablePrime(); p.compareTo(end) < 0;
+                p = p.nextProbablePrime()) {
+            primes.add(p.longValueExact());
+        }
+        return primes.build().toArray();
+    }
+}
@@ -1,14 +1,26 @@
 package com.hexaware.controller;
 
+import com.hexaware.model.BatchItemResult;
+import com.hexaware.model.BatchItemResult.Status;
+import com.hexaware.model.CategoryStatistics;
 import com.hexaware.model.Product;
 import com.hexaware.model.Product.Category;
+import com.hexaware.model.ProductPage;
 import com.hexaware.service.ProductService;
+import com.hexaware.controller.ProductResponseCache.CachedResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * REST Controller for handling Product related operations
@@ -18,39 +30,148 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductResponseCache responseCache;
+    private final ObjectWriter productWriter;
 
     /**
      * Constructor for dependency injection
      *
      * @param productService Service for product operations
+     * @param responseCache Cache of serialized list and single product responses
+     * @param objectMapper JSON mapper used for streamed responses
      */
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductResponseCache responseCache,
+                             ObjectMapper objectMapper) {
         this.productService = productService;
+        this.responseCache = responseCache;
+        this.productWriter = objectMapper.writerFor(Product.class);
     }
 
     /**
-     * Get all products
+     * Get all products, or only those matching a price range and category when any filter is given
      *
-     * @return HTTP 200 with list of all products
+     * @param minPrice Lowest price to include, optional
+     * @param maxPrice Highest price to include, optional
+     * @param category Product category to filter by, optional
+     * @param ifNoneMatch ETag of the client's copy of the full list, optional
+     * @return HTTP 200 with list of products, 304 if the client's full list is current,
+     *         400 if minPrice is greater than maxPrice
+     * @throws JsonProcessingException if the list cannot be serialized
      */
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return new ResponseEntity<>(products, HttpStatus.OK);
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) Float minPrice,
+                                            @RequestParam(required = false) Float maxPrice,
+                                            @RequestParam(required = false) Category category,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                            String ifNoneMatch) throws JsonProcessingException {
+        if (minPrice == null && maxPrice == null && category == null) {
+            return cachedResponse(responseCache.getAllProducts(), ifNoneMatch);
+        }
+        try {
+            List<Product> products = productService.getProductsInPriceRange(minPrice, maxPrice, category);
+            return new ResponseEntity<>(products, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Get one page of products ordered by ID
+     *
+     * @param after ID of the last product of the previous page, omitted for the first page
+     * @param limit Maximum number of products on the page
+     * @return HTTP 200 with the page and the cursor for the next one, 400 if limit is out of range
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ProductPage> getProductPage(@RequestParam(required = false) Integer after,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        try {
+            ProductPage page = productService.getProductPage(after, limit);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Get price statistics per product category
+     *
+     * @return HTTP 200 with count, lowest, highest, average and total price for each category
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<CategoryStatistics>> getCategoryStatistics() {
+        List<CategoryStatistics> statistics = productService.getCategoryStatistics();
+        return new ResponseEntity<>(statistics, HttpStatus.OK);
+    }
+
+    /**
+     * Search products by name
+     *
+     * @param q Words or word prefixes to look for in product names
+     * @param limit Maximum number of products to return
+     * @return HTTP 200 with matching products, best match first, 400 if the query is empty or limit is out of range
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Product>> searchProducts(@RequestParam String q,
+                                                        @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<Product> products = productService.searchProducts(q, limit);
+            return new ResponseEntity<>(products, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Stream all products as newline-delimited JSON, writing each product as
+     * it is read instead of building the whole list and body first
+     *
+     * @return HTTP 200 with one JSON product per line
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+        StreamingResponseBody body = outputStream -> {
+            for (Product product : productService.getAllProductsView()) {
+                outputStream.write(productWriter.writeValueAsBytes(product));
+                outputStream.write('\n');
+            }
+        };
+        return new ResponseEntity<>(body, HttpStatus.OK);
     }
 
     /**
      * Get a product by ID
      *
      * @param id Product ID
-     * @return HTTP 200 with product if found, 404 if not found
+     * @param ifNoneMatch ETag of the client's copy of the product, optional
+     * @return HTTP 200 with product if found, 304 if the client's copy is current, 404 if not found
+     * @throws JsonProcessingException if the product cannot be serialized
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Integer id) {
-        return productService.getProductById(id)
-                .map(product -> new ResponseEntity<>(product, HttpStatus.OK))
-                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    public ResponseEntity<byte[]> getProductById(@PathVariable Integer id,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                 String ifNoneMatch) throws JsonProcessingException {
+        Optional<CachedResponse> response = responseCache.getProductById(id);
+        if (response.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return cachedResponse(response.get(), ifNoneMatch);
+    }
+
+    /**
+     * Build a 200 response from cached JSON bytes, or 304 if the client already has them
+     */
+    private ResponseEntity<byte[]> cachedResponse(CachedResponse response, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        if (response.etag() != null) {
+            headers.setETag(response.etag());
+        }
+        if (ProductResponseCache.matches(ifNoneMatch, response.etag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new ResponseEntity<>(response.body(), headers, HttpStatus.OK);
     }
 
     /**
@@ -102,6 +223,54 @@ public class ProductController {
         return new ResponseEntity<>(deleted ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Create several products in one request. Nothing is created unless every product is valid.
+     *
+     * @param products Products to create
+     * @return HTTP 201 with a result per product if all were created, 400 with a result per product otherwise
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> createProducts(@RequestBody List<Product> products) {
+        return batchResponse(productService.addProducts(products), HttpStatus.CREATED);
+    }
+
+    /**
+     * Update several products in one request. Nothing is updated unless every product is valid and exists.
+     *
+     * @param products Products to update, each with its ID
+     * @return HTTP 200 with a result per product if all were updated, 404 if a product was not found,
+     *         400 if a product was invalid
+     */
+    @PutMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> updateProducts(@RequestBody List<Product> products) {
+        return batchResponse(productService.updateProducts(products), HttpStatus.OK);
+    }
+
+    /**
+     * Delete several products in one request. Nothing is deleted unless every product exists.
+     *
+     * @param ids IDs of the products to delete
+     * @return HTTP 200 with a result per ID if all were deleted, 404 if a product was not found,
+     *         400 if an ID was invalid
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> deleteProducts(@RequestBody List<Integer> ids) {
+        return batchResponse(productService.deleteProducts(ids), HttpStatus.OK);
+    }
+
+    /**
+     * Pick the status of a batch response from its item results
+     */
+    private ResponseEntity<List<BatchItemResult>> batchResponse(List<BatchItemResult> results, HttpStatus applied) {
+        if (results.stream().anyMatch(result -> result.getStatus() == Status.INVALID)) {
+            return new ResponseEntity<>(results, HttpStatus.BAD_REQUEST);
+        }
+        if (results.stream().anyMatch(result -> result.getStatus() == Status.NOT_FOUND)) {
+            return new ResponseEntity<>(results, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(results, applied);
+    }
+
     /**
      * Get products by category
      *
@@ -0,0 +1,153 @@
+package com.hexaware.controller;
+
+import com.hexaware.model.Product;
+import com.hexaware.service.ProductService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cache of serialized JSON responses for the product list and single products.
+ *
+ * Each response is serialized once and tagged with a strong ETag made of a
+ * per-process epoch and the catalogue version it was read at. A response is
+ * only tagged when no change started between taking the version and
+ * serializing, so one tag never names two bodies; if changes keep landing, it
+ * is read again, and after a few attempts served untagged. A change to a
+ * product evicts that product's response and the list response, so other
+ * cached products keep their bytes and their tags.
+ */
+@Component
+public class ProductResponseCache {
+
+    /**
+     * Serialized response body with its ETag, null if it was read while products were changing
+     */
+    public record CachedResponse(String etag, byte[] body) {
+    }
+
+    private static final int READ_ATTEMPTS = 3;
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    // Versions restart with the process, so tags from an earlier run must not match
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicReference<CachedResponse> allProducts = new AtomicReference<>();
+    private final ConcurrentMap<Integer, CachedResponse> products = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param productService Service for product operations
+     * @param objectMapper JSON mapper used to serialize responses
+     */
+    @Autowired
+    public ProductResponseCache(ProductService productService, ObjectMapper objectMapper) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        productService.addProductChangeListener(this::evict);
+    }
+
+    /**
+     * Get the serialized list of all products
+     *
+     * @return Cached or freshly serialized response
+     * @throws JsonProcessingException if a product cannot be serialized
+     */
+    public CachedResponse getAllProducts() throws JsonProcessingException {
+        CachedResponse cached = allProducts.get();
+        if (cached != null) {
+            return cached;
+        }
+        for (int attempt = 1; ; attempt++) {
+            long version = productService.getCatalogueVersion();
+            List<Product> all = productService.getAllProducts();
+            byte[] body = objectMapper.writeValueAsBytes(all);
+            if (productService.isCatalogueUnchangedSince(version)) {
+                CachedResponse response = new CachedResponse(etag(version), body);
+                allProducts.set(response);
+                // A change that started since the check may have evicted before the set
+                if (!productService.isCatalogueUnchangedSince(version)) {
+                    allProducts.compareAndSet(response, null);
+                }
+                return response;
+            }
+            if (attempt == READ_ATTEMPTS) {
+                return new CachedResponse(null, body);
+            }
+        }
+    }
+
+    /**
+     * Get the serialized product with the given ID
+     *
+     * @param id Product ID
+     * @return Cached or freshly serialized response, empty if the product does not exist
+     * @throws JsonProcessingException if the product cannot be serialized
+     */
+    public Optional<CachedResponse> getProductById(Integer id) throws JsonProcessingException {
+        CachedResponse cached = products.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        for (int attempt = 1; ; attempt++) {
+            long version = productService.getCatalogueVersion();
+            Optional<Product> product = productService.getProductById(id);
+            if (product.isEmpty()) {
+                return Optional.empty();
+            }
+            byte[] body = objectMapper.writeValueAsBytes(product.get());
+            if (productService.isCatalogueUnchangedSince(version)) {
+                CachedResponse response = new CachedResponse(etag(version), body);
+                products.put(id, response);
+                // A change that started since the check may have evicted before the put
+                if (!productService.isCatalogueUnchangedSince(version)) {
+                    products.remove(id, response);
+                }
+                return Optional.of(response);
+            }
+            if (attempt == READ_ATTEMPTS) {
+                return Optional.of(new CachedResponse(null, body));
+            }
+        }
+    }
+
+    /**
+     * Check an If-None-Match header against an ETag, using the weak comparison HTTP asks for
+     *
+     * @param ifNoneMatch Header value, or null if the request had none
+     * @param etag Current ETag of the resource, or null if it has none
+     * @return true if the client's copy is current and 304 can be sent
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String etag(long version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+
+    private void evict(Integer id) {
+        products.remove(id);
+        allProducts.set(null);
+    }
+}
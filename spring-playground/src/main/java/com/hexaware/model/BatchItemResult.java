@@ -0,0 +1,114 @@
+package com.hexaware.model;
+
+import java.util.Objects;
+
+/**
+ * Outcome of one item of a batch create, update or delete request.
+ */
+public class BatchItemResult {
+
+    private int index;
+    private Integer id;
+    private Status status;
+    private String message;
+
+    /**
+     * Enum representing the outcome of a batch item
+     */
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        INVALID,
+        NOT_FOUND,
+        // Valid, but not applied because another item of the batch failed
+        NOT_APPLIED
+    }
+
+    /**
+     * Default constructor
+     */
+    public BatchItemResult() {
+    }
+
+    /**
+     * Parameterized constructor
+     *
+     * @param index Position of the item in the request
+     * @param id Product ID of the item, if known
+     * @param status Outcome of the item
+     * @param message Reason the item failed, or null
+     */
+    public BatchItemResult(int index, Integer id, Status status, String message) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Equals method based on all fields
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BatchItemResult)) return false;
+        BatchItemResult result = (BatchItemResult) o;
+        return index == result.index && Objects.equals(id, result.id)
+                && status == result.status && Objects.equals(message, result.message);
+    }
+
+    /**
+     * HashCode method based on all fields
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, id, status, message);
+    }
+
+    /**
+     * ToString method for debugging and logging
+     */
+    @Override
+    public String toString() {
+        return "BatchItemResult{" +
+                "index=" + index +
+                ", id=" + id +
+                ", status=" + status +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
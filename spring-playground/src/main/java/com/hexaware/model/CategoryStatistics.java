@@ -0,0 +1,127 @@
+package com.hexaware.model;
+
+import com.hexaware.model.Product.Category;
+
+import java.util.Objects;
+
+/**
+ * Price statistics for the products of one category.
+ */
+public class CategoryStatistics {
+
+    private Category category;
+    private long count;
+    private Float minPrice;
+    private Float maxPrice;
+    private Double averagePrice;
+    private double totalPrice;
+
+    /**
+     * Default constructor
+     */
+    public CategoryStatistics() {
+    }
+
+    /**
+     * Parameterized constructor
+     *
+     * @param category Product category
+     * @param count Number of products in the category
+     * @param minPrice Lowest price, or null if the category is empty
+     * @param maxPrice Highest price, or null if the category is empty
+     * @param averagePrice Average price, or null if the category is empty
+     * @param totalPrice Sum of all prices
+     */
+    public CategoryStatistics(Category category, long count, Float minPrice, Float maxPrice,
+                              Double averagePrice, double totalPrice) {
+        this.category = category;
+        this.count = count;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.averagePrice = averagePrice;
+        this.totalPrice = totalPrice;
+    }
+
+    // Getters and Setters
+    public Category getCategory() {
+        return category;
+    }
+
+    public void setCategory(Category category) {
+        this.category = category;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public Float getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Float minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Float getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Float maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Double getAveragePrice() {
+        return averagePrice;
+    }
+
+    public void setAveragePrice(Double averagePrice) {
+        this.averagePrice = averagePrice;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(double totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    /**
+     * Equals method based on category
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CategoryStatistics)) return false;
+        CategoryStatistics statistics = (CategoryStatistics) o;
+        return category == statistics.category;
+    }
+
+    /**
+     * HashCode method based on category
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(category);
+    }
+
+    /**
+     * ToString method for debugging and logging
+     */
+    @Override
+    public String toString() {
+        return "CategoryStatistics{" +
+                "category=" + category +
+                ", count=" + count +
+                ", minPrice=" + minPrice +
+                ", maxPrice=" + maxPrice +
+                ", averagePrice=" + averagePrice +
+                ", totalPrice=" + totalPrice +
+                '}';
+    }
+}
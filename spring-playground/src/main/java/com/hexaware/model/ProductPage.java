@@ -0,0 +1,77 @@
+package com.hexaware.model;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One page of products ordered by ID, with the cursor for the next page.
+ */
+public class ProductPage {
+
+    private List<Product> products;
+    private Integer nextCursor;
+
+    /**
+     * Default constructor
+     */
+    public ProductPage() {
+    }
+
+    /**
+     * Parameterized constructor
+     *
+     * @param products Products on this page
+     * @param nextCursor Value of the after parameter for the next page, or null if this is the last page
+     */
+    public ProductPage(List<Product> products, Integer nextCursor) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<Product> products) {
+        this.products = products;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Equals method based on products and cursor
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProductPage)) return false;
+        ProductPage page = (ProductPage) o;
+        return Objects.equals(products, page.products) && Objects.equals(nextCursor, page.nextCursor);
+    }
+
+    /**
+     * HashCode method based on products and cursor
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(products, nextCursor);
+    }
+
+    /**
+     * ToString method for debugging and logging
+     */
+    @Override
+    public String toString() {
+        return "ProductPage{" +
+                "products=" + products +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
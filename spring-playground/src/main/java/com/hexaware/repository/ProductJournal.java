@@ -0,0 +1,518 @@
+package com.hexaware.repository;
+
+import com.hexaware.model.Product;
+import com.hexaware.model.Product.Category;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable storage behind ProductRepository: a write-ahead log of every save
+ * and delete, and snapshots that let the log be truncated.
+ *
+ * Every record is framed as its payload length, a CRC32C of the payload and
+ * the payload itself. The log is split into numbered segments. Callers frame
+ * their own records and queue them; one writer thread drains the queue, writes
+ * everything queued with one gathering write and makes it durable with one
+ * fsync, so concurrent writers share the cost of a sync (group commit).
+ *
+ * A snapshot starts a new segment and then writes every product as of that
+ * moment to a temporary file, renames it over the previous snapshot and
+ * deletes the segments it covers. Recovery maps the snapshot and the
+ * remaining segments read-only and replays them in order. A record cut short
+ * or failing its checksum at the end of the last segment is a write that was
+ * never acknowledged, so the segment is truncated there.
+ *
+ * Once a write or sync has failed, every later record fails with the same
+ * error, since the segment may end in a partial group. Once the journal is
+ * closed, records are failed as soon as they are queued.
+ */
+class ProductJournal implements Closeable {
+
+    /**
+     * Outcome of opening a journal
+     *
+     * @param existing true if a snapshot or log was found
+     * @param nextId Lowest ID never used by a recovered product
+     */
+    record Recovery(boolean existing, int nextId) {
+    }
+
+    // Segment size that makes a snapshot worthwhile
+    static final long SNAPSHOT_THRESHOLD = 64L << 20;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte SNAPSHOT_HEADER = 3;
+    private static final int FRAME_HEADER = 8;
+    private static final int MAX_RECORD = 16 << 20;
+    // Type, ID, price, category, upload time and name length of a product record
+    private static final int PRODUCT_FIELDS = 1 + 4 + 4 + 1 + 8 + 4 + 4;
+    private static final long MAP_WINDOW = 256L << 20;
+    private static final int MAX_GROUP = 4096;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+    private static final String SNAPSHOT_FILE = "products.snapshot";
+    private static final String SEGMENT_PREFIX = "products-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    // Queue markers, compared by identity
+    private static final ByteBuffer ROTATE = ByteBuffer.allocate(0);
+    private static final ByteBuffer CLOSE = ByteBuffer.allocate(0);
+
+    private record Pending(ByteBuffer record, CompletableFuture<Void> done) {
+    }
+
+    private final Path directory;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private Thread writer;
+    // Owned by the writer thread once it has started
+    private FileChannel segment;
+    private volatile long generation;
+    private volatile long segmentBytes;
+    private volatile IOException failure;
+    // Set by the writer thread as it stops; records queued after that are failed by whoever sees it first
+    private volatile boolean closed;
+
+    ProductJournal(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Replay the snapshot and log into the given callbacks, then start logging
+     *
+     * @param onPut Called with every product saved, in log order
+     * @param onDelete Called with every product ID deleted, in log order
+     * @return Whether anything was recovered and the next free ID
+     * @throws IOException if a file cannot be read or a complete segment is corrupt
+     */
+    Recovery open(Consumer<Product> onPut, IntConsumer onDelete) throws IOException {
+        int[] nextId = {1};
+        Consumer<ByteBuffer> replay = payload -> {
+            byte type = payload.get();
+            if (type == PUT) {
+                Product product = decodeProduct(payload);
+                nextId[0] = Math.max(nextId[0], product.getId() + 1);
+                onPut.accept(product);
+            } else if (type == DELETE) {
+                int id = payload.getInt();
+                nextId[0] = Math.max(nextId[0], id + 1);
+                onDelete.accept(id);
+            } else if (type == SNAPSHOT_HEADER) {
+                generation = payload.getLong();
+                nextId[0] = Math.max(nextId[0], payload.getInt());
+            } else {
+                throw new IllegalStateException("Unknown product log record type " + type);
+            }
+        };
+
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        boolean existing = Files.exists(snapshot);
+        if (existing) {
+            try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                if (replay(channel, replay) != channel.size()) {
+                    throw new IOException("Product snapshot " + snapshot + " is corrupt");
+                }
+            }
+        }
+
+        TreeMap<Long, Path> segments = segments();
+        for (Path covered : segments.headMap(generation).values()) {
+            // Left behind by a crash between a snapshot and the cleanup after it
+            Files.delete(covered);
+        }
+        segments = new TreeMap<>(segments.tailMap(generation));
+        existing |= !segments.isEmpty();
+        long end = 0;
+        for (var entry : segments.entrySet()) {
+            try (FileChannel channel = FileChannel.open(entry.getValue(), StandardOpenOption.READ)) {
+                end = replay(channel, replay);
+                if (end != channel.size() && !entry.getKey().equals(segments.lastKey())) {
+                    throw new IOException("Product log segment " + entry.getValue() + " is corrupt");
+                }
+            }
+            generation = entry.getKey();
+        }
+
+        segment = FileChannel.open(segmentPath(generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segment.truncate(end);
+        segment.position(end);
+        segmentBytes = end;
+        writer = new Thread(this::writeLoop, "product-journal");
+        writer.setDaemon(true);
+        writer.start();
+        return new Recovery(existing, nextId[0]);
+    }
+
+    /**
+     * Queue a saved product
+     *
+     * @return Future completed once the record is durable
+     */
+    CompletableFuture<Void> logPut(Product product) {
+        return submit(encodeProduct(PUT, product));
+    }
+
+    /**
+     * Check that a product's record would be within the size the log accepts
+     *
+     * @return true if {@link #logPut} cannot fail for the size of the product
+     */
+    static boolean fits(Product product) {
+        String name = product.getName();
+        // No UTF-16 unit takes more than 3 bytes in UTF-8, so most names need no encoding to check
+        if (name == null || PRODUCT_FIELDS + 3L * name.length() <= MAX_RECORD) {
+            return true;
+        }
+        return PRODUCT_FIELDS + name.getBytes(StandardCharsets.UTF_8).length <= MAX_RECORD;
+    }
+
+    /**
+     * Queue a deleted product ID
+     *
+     * @return Future completed once the record is durable
+     */
+    CompletableFuture<Void> logDelete(int id) {
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_HEADER + 5);
+        buffer.position(FRAME_HEADER);
+        buffer.put(DELETE).putInt(id);
+        return submit(frame(buffer));
+    }
+
+    /**
+     * @return true once the current segment has grown enough to be worth a snapshot
+     */
+    boolean snapshotDue() {
+        return segmentBytes >= SNAPSHOT_THRESHOLD;
+    }
+
+    /**
+     * Start a new segment. Records queued before this call end up in earlier segments.
+     *
+     * @return Generation of the new segment, to be passed to {@link #writeSnapshot}
+     */
+    long rotate() throws IOException {
+        await(submit(ROTATE));
+        return generation;
+    }
+
+    /**
+     * Write a snapshot covering every segment before the given generation and delete those segments
+     *
+     * @param snapshotGeneration Generation returned by the {@link #rotate} made when the products were captured
+     * @param products Every product at the time of the rotation
+     * @param nextId Next ID the repository would allocate at the time of the rotation
+     */
+    void writeSnapshot(long snapshotGeneration, Collection<Product> products, int nextId) throws IOException {
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer block = ByteBuffer.allocate(1 << 20);
+            ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER + 13);
+            header.position(FRAME_HEADER);
+            header.put(SNAPSHOT_HEADER).putLong(snapshotGeneration).putInt(nextId);
+            block.put(frame(header));
+            for (Product product : products) {
+                ByteBuffer record = encodeProduct(PUT, product);
+                if (record.remaining() > block.remaining()) {
+                    writeFully(channel, block.flip());
+                    block.clear();
+                }
+                if (record.remaining() > block.remaining()) {
+                    writeFully(channel, record);
+                } else {
+                    block.put(record);
+                }
+            }
+            writeFully(channel, block.flip());
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+        for (Path covered : segments().headMap(snapshotGeneration).values()) {
+            Files.deleteIfExists(covered);
+        }
+    }
+
+    /**
+     * Write everything still queued, then stop the writer and close the log
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer == null || closed) {
+            return;
+        }
+        await(submit(CLOSE));
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wait for a queued record to become durable
+     *
+     * @throws IOException if the log could not be written
+     */
+    static void await(CompletableFuture<Void> durable) throws IOException {
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Void> submit(ByteBuffer record) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (closed) {
+            done.completeExceptionally(new IOException("Product log is closed"));
+            return done;
+        }
+        queue.add(new Pending(record, done));
+        if (closed) {
+            // The writer may have drained the queue for the last time before this record was added
+            failQueued();
+        }
+        return done;
+    }
+
+    private void failQueued() {
+        for (Pending pending = queue.poll(); pending != null; pending = queue.poll()) {
+            pending.done().completeExceptionally(new IOException("Product log is closed"));
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> group = new ArrayList<>();
+        List<ByteBuffer> records = new ArrayList<>();
+        while (true) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                closed = true;
+                failQueued();
+                return;
+            }
+            queue.drainTo(group, MAX_GROUP - 1);
+            int start = 0;
+            for (int i = 0; i <= group.size(); i++) {
+                ByteBuffer record = i < group.size() ? group.get(i).record() : null;
+                if (record != null && record != ROTATE && record != CLOSE) {
+                    records.add(record);
+                    continue;
+                }
+                // Sync everything before a marker, then act on the marker
+                sync(records, group.subList(start, i));
+                records.clear();
+                if (record == ROTATE) {
+                    finish(group.get(i), this::nextSegment);
+                } else if (record == CLOSE) {
+                    closed = true;
+                    finish(group.get(i), () -> segment.close());
+                    group.subList(i + 1, group.size()).forEach(pending -> pending.done().completeExceptionally(
+                            new IOException("Product log is closed")));
+                    failQueued();
+                    return;
+                }
+                start = i + 1;
+            }
+            group.clear();
+        }
+    }
+
+    private void sync(List<ByteBuffer> records, List<Pending> waiting) {
+        if (waiting.isEmpty()) {
+            return;
+        }
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            ByteBuffer[] buffers = records.toArray(new ByteBuffer[0]);
+            long written = 0;
+            // A gathering write empties the buffers in order
+            while (buffers[buffers.length - 1].hasRemaining()) {
+                written += segment.write(buffers);
+            }
+            segment.force(false);
+            segmentBytes += written;
+            waiting.forEach(pending -> pending.done().complete(null));
+        } catch (IOException e) {
+            // A partly written group leaves the segment unusable, so every later write fails too
+            failure = e;
+            waiting.forEach(pending -> pending.done().completeExceptionally(e));
+        }
+    }
+
+    private interface IOAction {
+        void run() throws IOException;
+    }
+
+    private void finish(Pending marker, IOAction action) {
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            action.run();
+            marker.done().complete(null);
+        } catch (IOException e) {
+            failure = e;
+            marker.done().completeExceptionally(e);
+        }
+    }
+
+    private void nextSegment() throws IOException {
+        segment.close();
+        long next = generation + 1;
+        segment = FileChannel.open(segmentPath(next), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        syncDirectory();
+        segmentBytes = 0;
+        generation = next;
+    }
+
+    /**
+     * Replay the framed records of a file through memory-mapped windows
+     *
+     * @return Offset just after the last intact record
+     */
+    private static long replay(FileChannel channel, Consumer<ByteBuffer> handler) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        long windowStart = 0;
+        MappedByteBuffer window = null;
+        while (position + FRAME_HEADER <= size) {
+            if (window == null || position + FRAME_HEADER > windowStart + window.limit()) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position));
+            }
+            int offset = (int) (position - windowStart);
+            int length = window.getInt(offset);
+            int checksum = window.getInt(offset + 4);
+            if (length <= 0 || length > MAX_RECORD || position + FRAME_HEADER + length > size) {
+                break;
+            }
+            if (offset + FRAME_HEADER + length > window.limit()) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position));
+                offset = 0;
+            }
+            ByteBuffer payload = window.slice(offset + FRAME_HEADER, length);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            handler.accept(payload);
+            position += FRAME_HEADER + length;
+        }
+        return position;
+    }
+
+    private static ByteBuffer encodeProduct(byte type, Product product) {
+        byte[] name = product.getName() == null ? null : product.getName().getBytes(StandardCharsets.UTF_8);
+        LocalDateTime date = product.getDateOfUpload();
+        int length = PRODUCT_FIELDS + (name == null ? 0 : name.length);
+        if (length > MAX_RECORD) {
+            throw new IllegalArgumentException("Product is too large to store: " + product.getId());
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_HEADER + length);
+        buffer.position(FRAME_HEADER);
+        buffer.put(type)
+                .putInt(product.getId())
+                .putFloat(product.getPrice())
+                .put(product.getCategory() == null ? -1 : (byte) product.getCategory().ordinal())
+                .putLong(date == null ? NULL_DATE : date.toEpochSecond(ZoneOffset.UTC))
+                .putInt(date == null ? 0 : date.getNano())
+                .putInt(name == null ? -1 : name.length);
+        if (name != null) {
+            buffer.put(name);
+        }
+        return frame(buffer);
+    }
+
+    private static Product decodeProduct(ByteBuffer payload) {
+        int id = payload.getInt();
+        float price = payload.getFloat();
+        byte category = payload.get();
+        long seconds = payload.getLong();
+        int nanos = payload.getInt();
+        int nameLength = payload.getInt();
+        String name = null;
+        if (nameLength >= 0) {
+            byte[] bytes = new byte[nameLength];
+            payload.get(bytes);
+            name = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new Product(id, name, price,
+                category < 0 ? null : Category.values()[category],
+                seconds == NULL_DATE ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC));
+    }
+
+    // Fill in the length and checksum of a buffer whose payload starts after the frame header
+    private static ByteBuffer frame(ByteBuffer buffer) {
+        int length = buffer.position() - FRAME_HEADER;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), FRAME_HEADER, length);
+        buffer.putInt(0, length).putInt(4, (int) crc.getValue());
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private TreeMap<Long, Path> segments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    String number = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                    segments.put(Long.parseLong(number), file);
+                }
+            });
+        }
+        return segments;
+    }
+
+    private Path segmentPath(long segmentGeneration) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segmentGeneration, SEGMENT_SUFFIX));
+    }
+
+    // Make a rename or a new file durable; not every platform can sync a directory
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort only
+        }
+    }
+}
@@ -1,30 +1,210 @@
 package com.hexaware.repository;
 
+import com.hexaware.model.CategoryStatistics;
 import com.hexaware.model.Product;
 import com.hexaware.model.Product.Category;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
- * Repository class for Product entities with in-memory implementation
+ * Repository class for Product entities with in-memory implementation.
+ *
+ * Products are kept in a concurrent map keyed by ID, so lookups, updates and
+ * deletes are constant time and safe to call from any request thread. IDs are
+ * allocated atomically. Readers never lock: listings iterate the map directly
+ * and see every product that was present for the whole iteration, with each
+ * product in its state before or after any concurrent write to it.
+ *
+ * Secondary indexes are kept up to date on every save and delete: all
+ * products ordered by ID, all products ordered by price, and the price
+ * ordering per category. Listings and pages walk the ID ordering, and category
+ * and price range queries read a slice of a price index, instead of scanning
+ * every product. Writes to one ID are serialized through the map entry, so a product
+ * is never left indexed under two prices. A {@link ProductSearchIndex} over
+ * product names is maintained the same way, and so are a count and price
+ * total per category, which together with the ends of the category's price
+ * index give its statistics without a scan. The price, category and name each
+ * product was indexed under are remembered and used to unindex it, so a product
+ * modified in place and then saved again still leaves its old index entries.
+ * Until it is saved, readers see the new values under the old index entries.
+ *
+ * Every save and delete bumps a version counter once the write is visible, and
+ * then tells the registered change listeners which ID was written. Each also
+ * counts itself as started before it changes anything, so a reader that takes
+ * the version, reads, and then finds no write started since has read exactly
+ * that version.
+ *
+ * Batches run with every other write held off, so the checks a batch makes
+ * before writing still hold when it writes and no other write lands between
+ * its items. Single writes only exclude batches, never each other, and readers
+ * are never blocked, so a reader may see a batch half applied.
+ *
+ * When products.storage.directory is set, products are also kept on disk by a
+ * {@link ProductJournal}: each save and delete returns once its log record is
+ * durable, a batch returns once all of its records are, and a snapshot is
+ * taken in the background whenever the log has grown enough. On startup the
+ * products are recovered from the snapshot and the log, and the 20 seed
+ * products are only created when the directory is empty. A write is applied in
+ * memory before its log record is written, so if the log cannot be written the
+ * write throws UncheckedIOException but stays applied, and readers may already
+ * have seen it; it is lost on restart. Every later write fails the same way, so
+ * the repository should be restarted.
  */
 @Repository
 public class ProductRepository {
-    
-    private final List<Product> products;
-    private Integer currentId = 1;
+
+    private static final Logger log = LoggerFactory.getLogger(ProductRepository.class);
+
+    private final ConcurrentMap<Integer, Product> products;
+    private final AtomicInteger currentId = new AtomicInteger(1);
+    private final AtomicLong version = new AtomicLong();
+    // Equal to version when no write is in progress
+    private final AtomicLong writesStarted = new AtomicLong();
+    private final List<Consumer<Integer>> changeListeners = new CopyOnWriteArrayList<>();
+    // Shared by single writes, exclusive to batches
+    private final ReentrantReadWriteLock batchLock = new ReentrantReadWriteLock();
+    // Null when products are kept in memory only
+    private final ProductJournal journal;
+    private final ExecutorService snapshotExecutor;
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+    // Last log record written by the running batch, guarded by the exclusive batch lock
+    private CompletableFuture<Void> lastBatchWrite;
+    private final NavigableMap<Integer, Product> byId = new ConcurrentSkipListMap<>();
+    private final NavigableMap<PriceKey, Product> byPrice = new ConcurrentSkipListMap<>();
+    private final Map<Category, NavigableMap<PriceKey, Product>> byCategory = new EnumMap<>(Category.class);
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private final Map<Category, AtomicReference<PriceTotals>> totals = new EnumMap<>(Category.class);
+    // What each product was indexed under, which may differ from its fields once it is modified
+    private final ConcurrentMap<Integer, Indexed> indexed = new ConcurrentHashMap<>();
+
+    /**
+     * Count and exact price total of one category, replaced as a whole so the two always agree
+     */
+    private record PriceTotals(long count, BigDecimal total) {
+
+        static final PriceTotals EMPTY = new PriceTotals(0, BigDecimal.ZERO);
+
+        PriceTotals plus(float price) {
+            return new PriceTotals(count + 1, total.add(new BigDecimal(price)));
+        }
+
+        PriceTotals minus(float price) {
+            return new PriceTotals(count - 1, total.subtract(new BigDecimal(price)));
+        }
+    }
+
+    /**
+     * Index key ordering products by price, then by ID to keep equal prices apart
+     */
+    private record PriceKey(float price, int id) implements Comparable<PriceKey> {
+
+        static PriceKey of(Product product) {
+            return new PriceKey(product.getPrice(), product.getId());
+        }
+
+        @Override
+        public int compareTo(PriceKey other) {
+            int result = Float.compare(price, other.price);
+            return result != 0 ? result : Integer.compare(id, other.id);
+        }
+    }
 
     /**
-     * Constructor initializes the repository with 20 random products
+     * Index entries of one product, kept so they can be removed whatever has happened to the product since
+     */
+    private record Indexed(PriceKey key, Category category, String name) {
+    }
+
+    /**
+     * Constructor initializes an in-memory repository with 20 random products
      */
     public ProductRepository() {
-        this.products = new ArrayList<>();
-        initializeProducts();
+        this(null);
+    }
+
+    /**
+     * Constructor recovers products from the storage directory, or initializes
+     * the repository with 20 random products if there is nothing to recover
+     *
+     * @param storageDirectory Directory for the product log and snapshots, or blank to keep products in memory only
+     */
+    @Autowired
+    public ProductRepository(@Value("${products.storage.directory:}") String storageDirectory) {
+        this.products = new ConcurrentHashMap<>();
+        for (Category category : Category.values()) {
+            byCategory.put(category, new ConcurrentSkipListMap<>());
+            totals.put(category, new AtomicReference<>(PriceTotals.EMPTY));
+        }
+        if (storageDirectory == null || storageDirectory.isBlank()) {
+            this.journal = null;
+            this.snapshotExecutor = null;
+            initializeProducts();
+            return;
+        }
+        try {
+            this.journal = new ProductJournal(Path.of(storageDirectory));
+            ProductJournal.Recovery recovery = journal.open(this::restore, this::restoreDeletion);
+            currentId.set(recovery.nextId());
+            // Indexed once at the end, so products rewritten many times in the log are indexed once
+            products.values().parallelStream().forEach(this::index);
+            this.snapshotExecutor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "product-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (!recovery.existing()) {
+                initializeProducts();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open product storage in " + storageDirectory, e);
+        }
+    }
+
+    /**
+     * Finish any snapshot in progress and write every queued log record before shutdown
+     */
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        if (journal == null) {
+            return;
+        }
+        snapshotExecutor.shutdown();
+        snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        journal.close();
     }
 
     /**
@@ -60,18 +240,198 @@ public class ProductRepository {
      * Helper method to create and add a product
      */
     private Product createProduct(String name, float price, Category category) {
-        Product product = new Product(currentId++, name, price, category, LocalDateTime.now());
-        products.add(product);
+        Product product = new Product(currentId.getAndIncrement(), name, price, category, LocalDateTime.now());
+        put(product);
         return product;
     }
 
+    /**
+     * Store a product under its ID, replacing and unindexing any previous one
+     *
+     * @throws IllegalArgumentException if the product is too large to log, in which case nothing has changed
+     */
+    private void put(Product product) {
+        List<CompletableFuture<Void>> durable = new ArrayList<>(1);
+        batchLock.readLock().lock();
+        try {
+            products.compute(product.getId(), (id, previous) -> {
+                if (journal != null) {
+                    // Logged while the entry is held so the log orders writes to one ID as the map does,
+                    // and before the indexes change since encoding the record can fail
+                    durable.add(journal.logPut(product));
+                }
+                writesStarted.incrementAndGet();
+                unindex(id);
+                index(product);
+                return product;
+            });
+            changed(product.getId());
+        } finally {
+            batchLock.readLock().unlock();
+        }
+        awaitDurable(durable);
+    }
+
+    /**
+     * Put a recovered product without logging or indexing it
+     */
+    private void restore(Product product) {
+        products.put(product.getId(), product);
+    }
+
+    private void restoreDeletion(int id) {
+        products.remove(id);
+    }
+
+    /**
+     * Wait until a write is in the log, or leave it to the running batch to wait for
+     */
+    private void awaitDurable(List<CompletableFuture<Void>> durable) {
+        if (durable.isEmpty()) {
+            return;
+        }
+        if (batchLock.isWriteLockedByCurrentThread()) {
+            lastBatchWrite = durable.get(0);
+            return;
+        }
+        sync(durable.get(0));
+    }
+
+    private void sync(CompletableFuture<Void> durable) {
+        try {
+            ProductJournal.await(durable);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write product change to the log", e);
+        }
+        if (journal.snapshotDue() && snapshotRunning.compareAndSet(false, true)) {
+            snapshotExecutor.execute(this::snapshot);
+        }
+    }
+
+    /**
+     * Capture every product at a new log segment, then write them out without holding up writes
+     */
+    private void snapshot() {
+        try {
+            long generation;
+            List<Product> all;
+            int nextId;
+            batchLock.writeLock().lock();
+            try {
+                generation = journal.rotate();
+                all = new ArrayList<>(byId.values());
+                nextId = currentId.get();
+            } finally {
+                batchLock.writeLock().unlock();
+            }
+            journal.writeSnapshot(generation, all, nextId);
+        } catch (IOException e) {
+            // The log still holds every change, so only compaction is lost
+            log.warn("Could not write product snapshot", e);
+        } finally {
+            snapshotRunning.set(false);
+        }
+    }
+
+    /**
+     * Publish a completed write to the version counter and the change listeners
+     */
+    private void changed(Integer id) {
+        version.incrementAndGet();
+        changeListeners.forEach(listener -> listener.accept(id));
+    }
+
+    private void index(Product product) {
+        PriceKey key = PriceKey.of(product);
+        Category category = product.getCategory();
+        indexed.put(product.getId(), new Indexed(key, category, product.getName()));
+        byId.put(product.getId(), product);
+        byPrice.put(key, product);
+        if (category != null) {
+            byCategory.get(category).put(key, product);
+            totals.get(category).updateAndGet(current -> current.plus(key.price()));
+        }
+        searchIndex.add(product.getId(), product.getName());
+    }
+
+    private void unindex(Integer id) {
+        Indexed entries = indexed.remove(id);
+        if (entries == null) {
+            return;
+        }
+        byId.remove(id);
+        byPrice.remove(entries.key());
+        if (entries.category() != null) {
+            byCategory.get(entries.category()).remove(entries.key());
+            totals.get(entries.category()).updateAndGet(current -> current.minus(entries.key().price()));
+        }
+        searchIndex.remove(id, entries.name());
+    }
+
+    /**
+     * Get the repository version, which increases after every save and delete
+     *
+     * @return Current version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Check that no save or delete has started since the repository was at a version
+     *
+     * @param version Version taken before the reads being checked
+     * @return true if everything read since taking the version belongs to that version
+     */
+    public boolean isUnchangedSince(long version) {
+        return writesStarted.get() == version;
+    }
+
+    /**
+     * Register a listener called with the product ID after every save and delete
+     *
+     * @param listener Listener to call on the writing thread
+     */
+    public void addChangeListener(Consumer<Integer> listener) {
+        changeListeners.add(listener);
+    }
+
     /**
      * Find all products in the repository
      *
-     * @return List of all products
+     * @return List of all products ordered by ID
      */
     public List<Product> findAll() {
-        return new ArrayList<>(products);
+        return new ArrayList<>(byId.values());
+    }
+
+    /**
+     * Read-only live view of all products ordered by ID, for callers that
+     * only iterate once and should not pay for a copy
+     *
+     * @return View of all products ordered by ID
+     */
+    public Collection<Product> findAllView() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    /**
+     * Find one page of products ordered by ID
+     *
+     * @param afterId ID of the last product of the previous page, or null for the first page
+     * @param limit Maximum number of products to return
+     * @return List of at most limit products with IDs greater than afterId
+     */
+    public List<Product> findPage(Integer afterId, int limit) {
+        NavigableMap<Integer, Product> remaining = afterId == null ? byId : byId.tailMap(afterId, false);
+        List<Product> page = new ArrayList<>(Math.min(limit, 64));
+        for (Product product : remaining.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(product);
+        }
+        return page;
     }
 
     /**
@@ -81,9 +441,7 @@ public class ProductRepository {
      * @return Optional containing the product if found, empty otherwise
      */
     public Optional<Product> findById(Integer id) {
-        return products.stream()
-                .filter(product -> product.getId().equals(id))
-                .findFirst();
+        return id == null ? Optional.empty() : Optional.ofNullable(products.get(id));
     }
 
     /**
@@ -91,40 +449,159 @@ public class ProductRepository {
      *
      * @param product Product to save or update
      * @return Saved or updated product
+     * @throws IllegalArgumentException if the price is not finite, in which case nothing is saved
+     * @throws UncheckedIOException if the change could not be logged, in which case it is kept in memory only
      */
     public Product save(Product product) {
+        // The price totals cannot hold a non-finite price, and failing halfway through indexing would corrupt them
+        if (!Float.isFinite(product.getPrice())) {
+            throw new IllegalArgumentException("Product price must be a finite number, not " + product.getPrice());
+        }
         if (product.getId() == null) {
             // New product
-            product.setId(currentId++);
+            product.setId(currentId.getAndIncrement());
             product.setDateOfUpload(LocalDateTime.now());
-            products.add(product);
-        } else {
-            // Update existing product
-            deleteById(product.getId());
-            products.add(product);
         }
+        // Replaces an existing product in place, or adds one saved with a caller-chosen ID
+        put(product);
         return product;
     }
 
+    /**
+     * Check whether saving a product would fail for its size, which can only
+     * happen when products are kept on disk
+     *
+     * @param product Product to check
+     * @return true if the product is too large to store
+     */
+    public boolean isTooLargeToStore(Product product) {
+        return journal != null && !ProductJournal.fits(product);
+    }
+
     /**
      * Delete a product by its ID
      *
      * @param id ID of the product to delete
      * @return true if deleted, false if not found
+     * @throws UncheckedIOException if the change could not be logged, in which case it is kept in memory only
      */
     public boolean deleteById(Integer id) {
-        return products.removeIf(product -> product.getId().equals(id));
+        if (id == null) {
+            return false;
+        }
+        boolean[] removed = new boolean[1];
+        List<CompletableFuture<Void>> durable = new ArrayList<>(1);
+        batchLock.readLock().lock();
+        try {
+            products.computeIfPresent(id, (key, previous) -> {
+                writesStarted.incrementAndGet();
+                unindex(key);
+                removed[0] = true;
+                if (journal != null) {
+                    durable.add(journal.logDelete(key));
+                }
+                return null;
+            });
+            if (removed[0]) {
+                changed(id);
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+        awaitDurable(durable);
+        return removed[0];
+    }
+
+    /**
+     * Run a batch of reads and writes with all other writes held off until it completes
+     *
+     * @param batch Batch to run, which may call any method of this repository
+     * @param <T> Result type of the batch
+     * @return Result of the batch
+     */
+    public <T> T applyBatch(Supplier<T> batch) {
+        batchLock.writeLock().lock();
+        try {
+            T result = batch.get();
+            if (lastBatchWrite != null) {
+                // Records are written in order, so the last one being durable covers the whole batch
+                sync(lastBatchWrite);
+            }
+            return result;
+        } finally {
+            lastBatchWrite = null;
+            batchLock.writeLock().unlock();
+        }
     }
 
     /**
      * Filter products by category
      *
      * @param category Category to filter by
-     * @return List of products in the specified category
+     * @return List of products in the specified category, ordered by price
      */
     public List<Product> filterByCategory(Category category) {
-        return products.stream()
-                .filter(product -> product.getCategory() == category)
-                .collect(Collectors.toList());
+        if (category == null) {
+            return products.values().stream()
+                    .filter(product -> product.getCategory() == null)
+                    .collect(Collectors.toList());
+        }
+        return new ArrayList<>(byCategory.get(category).values());
+    }
+
+    /**
+     * Find products within a price range, optionally limited to one category
+     *
+     * @param minPrice Lowest price to include, or null for no lower bound
+     * @param maxPrice Highest price to include, or null for no upper bound
+     * @param category Category to filter by, or null for all categories
+     * @return List of matching products ordered by price, empty if minPrice is above maxPrice
+     */
+    public List<Product> findByPriceRange(Float minPrice, Float maxPrice, Category category) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            return new ArrayList<>();
+        }
+        NavigableMap<PriceKey, Product> index = category == null ? byPrice : byCategory.get(category);
+        if (minPrice != null) {
+            index = index.tailMap(new PriceKey(minPrice, Integer.MIN_VALUE), true);
+        }
+        if (maxPrice != null) {
+            index = index.headMap(new PriceKey(maxPrice, Integer.MAX_VALUE), true);
+        }
+        return new ArrayList<>(index.values());
+    }
+
+    /**
+     * Search products by name
+     *
+     * @param query Words or word prefixes that must all appear in the name
+     * @param limit Maximum number of products to return
+     * @return Up to limit matching products, best match first
+     */
+    public List<Product> search(String query, int limit) {
+        return searchIndex.search(query, limit, products);
+    }
+
+    /**
+     * Get price statistics for every category
+     *
+     * @return Count, lowest, highest, average and total price per category, in category order
+     */
+    public List<CategoryStatistics> getCategoryStatistics() {
+        List<CategoryStatistics> statistics = new ArrayList<>(totals.size());
+        for (Category category : Category.values()) {
+            PriceTotals categoryTotals = totals.get(category).get();
+            // The price index is a sorted multiset of prices, so its ends stay right after deletes
+            NavigableMap<PriceKey, Product> prices = byCategory.get(category);
+            Map.Entry<PriceKey, Product> lowest = prices.firstEntry();
+            Map.Entry<PriceKey, Product> highest = prices.lastEntry();
+            double total = categoryTotals.total().doubleValue();
+            statistics.add(new CategoryStatistics(category, categoryTotals.count(),
+                    lowest == null ? null : lowest.getKey().price(),
+                    highest == null ? null : highest.getKey().price(),
+                    categoryTotals.count() == 0 ? null : total / categoryTotals.count(),
+                    total));
+        }
+        return statistics;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+package com.hexaware.repository;
+
+import com.hexaware.model.Product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Inverted index over product names for ProductRepository.
+ *
+ * Names are split into lower-case tokens of letters and digits. Each token
+ * maps to a posting set of product IDs kept in ID order, and a sorted term
+ * dictionary lets a prefix find every token starting with it. A posting set
+ * and its entry in the dictionary are added and removed together under the
+ * posting map's lock for that token, so a token never has postings without
+ * being findable.
+ *
+ * A query matches a product when every query token is a prefix of one of the
+ * product's tokens. Matches rank by score, two points for each query token
+ * that equals a name token and one for each that only prefixes one, then by
+ * ID. Candidates come from the longest query token, usually the most
+ * selective: first the postings of the token itself, then those of longer
+ * tokens it prefixes, merged in ID order. Since IDs only grow within each of
+ * these tiers, a tier is abandoned as soon as its remaining candidates cannot
+ * outrank the results already found, so a common word costs about as much as
+ * a rare one.
+ */
+class ProductSearchIndex {
+
+    private record Match(Product product, int score) {
+    }
+
+    private static final Comparator<Match> RANKING = Comparator
+            .comparingInt(Match::score).reversed()
+            .thenComparing(match -> match.product().getId());
+
+    private final ConcurrentMap<String, NavigableSet<Integer>> postings = new ConcurrentHashMap<>();
+    private final NavigableSet<String> terms = new ConcurrentSkipListSet<>();
+
+    void add(Integer id, String name) {
+        for (String token : tokenize(name)) {
+            postings.compute(token, (term, ids) -> {
+                if (ids == null) {
+                    ids = new ConcurrentSkipListSet<>();
+                    terms.add(term);
+                }
+                ids.add(id);
+                return ids;
+            });
+        }
+    }
+
+    /**
+     * Remove a product from the postings of the name it was added with
+     */
+    void remove(Integer id, String name) {
+        for (String token : tokenize(name)) {
+            postings.computeIfPresent(token, (term, ids) -> {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    terms.remove(term);
+                    return null;
+                }
+                return ids;
+            });
+        }
+    }
+
+    /**
+     * Find the best matching products
+     *
+     * @param query Words or word prefixes to look for
+     * @param limit Maximum number of products to return
+     * @param products Current products by ID, used to skip products deleted since they were found
+     * @return Up to limit matching products, best first
+     */
+    List<Product> search(String query, int limit, ConcurrentMap<Integer, Product> products) {
+        Set<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String anchor = queryTokens.stream().max(Comparator.comparingInt(String::length)).get();
+        // Worst match kept at the head so it is the one dropped
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        Set<Integer> seen = new HashSet<>();
+        int fullScore = 2 * queryTokens.size();
+
+        NavigableSet<Integer> exact = postings.get(anchor);
+        if (exact != null) {
+            collect(exact.iterator(), fullScore, queryTokens, limit, products, best, seen);
+        }
+        List<Iterator<Integer>> longer = new ArrayList<>();
+        for (String term : terms.subSet(anchor, false, anchor + Character.MAX_VALUE, true)) {
+            NavigableSet<Integer> ids = postings.get(term);
+            if (ids != null) {
+                longer.add(ids.iterator());
+            }
+        }
+        collect(merge(longer), fullScore - 1, queryTokens, limit, products, best, seen);
+
+        List<Match> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        return ranked.stream().map(Match::product).toList();
+    }
+
+    /**
+     * Score candidates in ascending ID order until none of the rest can make the results
+     *
+     * @param maxScore Highest score any candidate of this tier can reach
+     */
+    private static void collect(Iterator<Integer> candidates, int maxScore, Set<String> queryTokens, int limit,
+                                ConcurrentMap<Integer, Product> products, PriorityQueue<Match> best, Set<Integer> seen) {
+        while (candidates.hasNext()) {
+            Integer id = candidates.next();
+            if (best.size() == limit) {
+                Match worst = best.peek();
+                if (worst.score() > maxScore
+                        || worst.score() == maxScore && worst.product().getId() < id) {
+                    return;
+                }
+            }
+            Product product = products.get(id);
+            if (product == null || !seen.add(id)) {
+                continue;
+            }
+            // A single token already matched through the postings it came from
+            int score = queryTokens.size() == 1 ? maxScore : score(queryTokens, tokenize(product.getName()));
+            if (score > 0) {
+                best.add(new Match(product, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+    }
+
+    // Merge ascending iterators into one ascending iterator, keeping duplicates
+    private static Iterator<Integer> merge(List<Iterator<Integer>> sources) {
+        PriorityQueue<PeekingIterator> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                Comparator.comparing(PeekingIterator::peek));
+        for (Iterator<Integer> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new PeekingIterator(source));
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Integer next() {
+                PeekingIterator head = heads.poll();
+                Integer id = head.next();
+                if (head.peek() != null) {
+                    heads.add(head);
+                }
+                return id;
+            }
+        };
+    }
+
+    private static final class PeekingIterator {
+        private final Iterator<Integer> source;
+        private Integer next;
+
+        PeekingIterator(Iterator<Integer> source) {
+            this.source = source;
+            this.next = source.next();
+        }
+
+        Integer peek() {
+            return next;
+        }
+
+        Integer next() {
+            Integer current = next;
+            next = source.hasNext() ? source.next() : null;
+            return current;
+        }
+    }
+
+    // 0 if some query token prefixes no name token
+    private static int score(Set<String> queryTokens, Set<String> nameTokens) {
+        int score = 0;
+        for (String queryToken : queryTokens) {
+            int tokenScore = 0;
+            for (String nameToken : nameTokens) {
+                if (nameToken.equals(queryToken)) {
+                    tokenScore = 2;
+                    break;
+                }
+                if (nameToken.startsWith(queryToken)) {
+                    tokenScore = 1;
+                }
+            }
+            if (tokenScore == 0) {
+                return 0;
+            }
+            score += tokenScore;
+        }
+        return score;
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
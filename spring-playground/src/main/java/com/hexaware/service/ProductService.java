@@ -1,13 +1,24 @@
 package com.hexaware.service;
 
+import com.hexaware.model.BatchItemResult;
+import com.hexaware.model.BatchItemResult.Status;
+import com.hexaware.model.CategoryStatistics;
 import com.hexaware.model.Product;
 import com.hexaware.model.Product.Category;
+import com.hexaware.model.ProductPage;
 import com.hexaware.repository.ProductRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Service class for managing product operations
@@ -16,6 +27,8 @@ import java.util.Optional;
 public class ProductService {
 
     private static final float PRICE_THRESHOLD = 100.0f;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SEARCH_RESULTS = 100;
     private final ProductRepository productRepository;
 
     /**
@@ -37,6 +50,66 @@ public class ProductService {
         return productRepository.findAll();
     }
 
+    /**
+     * Get the catalogue version, which increases after every change to a product
+     *
+     * @return Current catalogue version
+     */
+    public long getCatalogueVersion() {
+        return productRepository.getVersion();
+    }
+
+    /**
+     * Check that no product has been changed, or is being changed, since the catalogue was at a version
+     *
+     * @param version Catalogue version taken before the reads being checked
+     * @return true if everything read since taking the version belongs to that version
+     */
+    public boolean isCatalogueUnchangedSince(long version) {
+        return productRepository.isUnchangedSince(version);
+    }
+
+    /**
+     * Register a listener called with the product ID after every change to a product
+     *
+     * @param listener Listener to call on the writing thread
+     */
+    public void addProductChangeListener(Consumer<Integer> listener) {
+        productRepository.addChangeListener(listener);
+    }
+
+    /**
+     * Get a read-only view of all products ordered by ID, without copying them
+     *
+     * @return View of all products
+     */
+    public Collection<Product> getAllProductsView() {
+        return productRepository.findAllView();
+    }
+
+    /**
+     * Get one page of products ordered by ID
+     *
+     * @param after ID of the last product of the previous page, or null for the first page
+     * @param limit Maximum number of products on the page
+     * @return Page of products with the cursor for the next page
+     * @throws IllegalArgumentException if limit is not between 1 and the maximum page size
+     */
+    public ProductPage getProductPage(Integer after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                String.format("Page limit %d must be between 1 and %d", limit, MAX_PAGE_SIZE)
+            );
+        }
+        // One extra product tells whether another page follows
+        List<Product> products = productRepository.findPage(after, limit + 1);
+        if (products.size() <= limit) {
+            return new ProductPage(products, null);
+        }
+        List<Product> page = products.subList(0, limit);
+        return new ProductPage(page, page.get(limit - 1).getId());
+    }
+
     /**
      * Get a product by its ID
      *
@@ -52,14 +125,12 @@ public class ProductService {
      *
      * @param product Product to add
      * @return Added product if price is valid
-     * @throws IllegalArgumentException if price exceeds threshold
+     * @throws IllegalArgumentException if price is not finite or exceeds threshold
      */
     public Product addProduct(Product product) {
-        if (product.getPrice() > PRICE_THRESHOLD) {
-            throw new IllegalArgumentException(
-                String.format("Product price %.2f USD exceeds maximum allowed price %.2f USD",
-                    product.getPrice(), PRICE_THRESHOLD)
-            );
+        String priceError = checkPrice(product);
+        if (priceError != null) {
+            throw new IllegalArgumentException(priceError);
         }
         return productRepository.save(product);
     }
@@ -69,7 +140,7 @@ public class ProductService {
      *
      * @param product Product to update
      * @return Updated product
-     * @throws IllegalArgumentException if product not found or price exceeds threshold
+     * @throws IllegalArgumentException if product not found, or price is not finite or exceeds threshold
      */
     public Product updateProduct(Product product) {
         if (product.getId() == null) {
@@ -82,16 +153,111 @@ public class ProductService {
         }
 
         // Check price threshold for updates
-        if (product.getPrice() > PRICE_THRESHOLD) {
-            throw new IllegalArgumentException(
-                String.format("Product price %.2f USD exceeds maximum allowed price %.2f USD",
-                    product.getPrice(), PRICE_THRESHOLD)
-            );
+        String priceError = checkPrice(product);
+        if (priceError != null) {
+            throw new IllegalArgumentException(priceError);
         }
 
         return productRepository.save(product);
     }
 
+    /**
+     * Add several products, all or none. Every product is validated first, and
+     * the products are saved only if all of them are valid. New products must
+     * not carry an ID, since saving one would replace the product with that ID,
+     * and a product may appear only once.
+     *
+     * @param products Products to add
+     * @return Result for each product in request order, CREATED with the new ID if the batch was applied
+     */
+    public List<BatchItemResult> addProducts(List<Product> products) {
+        return productRepository.applyBatch(() -> {
+            List<BatchItemResult> results = new ArrayList<>(products.size());
+            Set<Product> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = 0; i < products.size(); i++) {
+                Product product = products.get(i);
+                if (product == null) {
+                    results.add(new BatchItemResult(i, null, Status.INVALID, "Product cannot be null"));
+                } else if (product.getId() != null) {
+                    results.add(new BatchItemResult(i, product.getId(), Status.INVALID,
+                            "Product ID must be null for create: " + product.getId()));
+                } else if (!seen.add(product)) {
+                    results.add(new BatchItemResult(i, null, Status.INVALID, "Duplicate product in batch"));
+                } else {
+                    String error = checkBatchItem(product);
+                    results.add(new BatchItemResult(i, null, error == null ? Status.CREATED : Status.INVALID, error));
+                }
+            }
+            if (allSucceeded(results)) {
+                for (int i = 0; i < products.size(); i++) {
+                    results.get(i).setId(productRepository.save(products.get(i)).getId());
+                }
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Update several existing products, all or none. Every product is validated
+     * first, and the products are saved only if all of them are valid and exist.
+     *
+     * @param products Products to update
+     * @return Result for each product in request order, UPDATED if the batch was applied
+     */
+    public List<BatchItemResult> updateProducts(List<Product> products) {
+        return productRepository.applyBatch(() -> {
+            List<BatchItemResult> results = new ArrayList<>(products.size());
+            Set<Integer> seen = new HashSet<>();
+            for (int i = 0; i < products.size(); i++) {
+                Product product = products.get(i);
+                Integer id = product == null ? null : product.getId();
+                if (id == null) {
+                    results.add(new BatchItemResult(i, null, Status.INVALID, "Product ID cannot be null for update"));
+                } else if (!seen.add(id)) {
+                    results.add(new BatchItemResult(i, id, Status.INVALID, "Duplicate product ID in batch: " + id));
+                } else if (productRepository.findById(id).isEmpty()) {
+                    results.add(new BatchItemResult(i, id, Status.NOT_FOUND, "Product not found with ID: " + id));
+                } else {
+                    String error = checkBatchItem(product);
+                    results.add(new BatchItemResult(i, id, error == null ? Status.UPDATED : Status.INVALID, error));
+                }
+            }
+            if (allSucceeded(results)) {
+                products.forEach(productRepository::save);
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Delete several products, all or none. The products are deleted only if all of them exist.
+     *
+     * @param ids IDs of the products to delete
+     * @return Result for each ID in request order, DELETED if the batch was applied
+     */
+    public List<BatchItemResult> deleteProducts(List<Integer> ids) {
+        return productRepository.applyBatch(() -> {
+            List<BatchItemResult> results = new ArrayList<>(ids.size());
+            Set<Integer> seen = new HashSet<>();
+            for (int i = 0; i < ids.size(); i++) {
+                Integer id = ids.get(i);
+                if (id == null) {
+                    results.add(new BatchItemResult(i, null, Status.INVALID, "Product ID cannot be null for delete"));
+                } else if (!seen.add(id)) {
+                    results.add(new BatchItemResult(i, id, Status.INVALID, "Duplicate product ID in batch: " + id));
+                } else if (productRepository.findById(id).isEmpty()) {
+                    results.add(new BatchItemResult(i, id, Status.NOT_FOUND, "Product not found with ID: " + id));
+                } else {
+                    results.add(new BatchItemResult(i, id, Status.DELETED, null));
+                }
+            }
+            if (allSucceeded(results)) {
+                ids.forEach(productRepository::deleteById);
+            }
+            return results;
+        });
+    }
+
     /**
      * Delete a product by its ID
      *
@@ -118,8 +284,103 @@ public class ProductService {
      * @return List of products with price below threshold
      */
     public List<Product> getProductsBelowThreshold() {
-        return productRepository.findAll().stream()
-            .filter(product -> product.getPrice() <= PRICE_THRESHOLD)
-            .toList();
+        return productRepository.findByPriceRange(null, PRICE_THRESHOLD, null);
+    }
+
+    /**
+     * Get price statistics per product category
+     *
+     * @return Count, lowest, highest, average and total price for each category
+     */
+    public List<CategoryStatistics> getCategoryStatistics() {
+        return productRepository.getCategoryStatistics();
+    }
+
+    /**
+     * Search products by name
+     *
+     * @param query Words or word prefixes that must all appear in the product name
+     * @param limit Maximum number of products to return
+     * @return Matching products, best match first
+     * @throws IllegalArgumentException if the query is blank or limit is out of range
+     */
+    public List<Product> searchProducts(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query cannot be empty");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException(
+                String.format("Search limit %d must be between 1 and %d", limit, MAX_SEARCH_RESULTS)
+            );
+        }
+        return productRepository.search(query, limit);
+    }
+
+    /**
+     * Get products within a price range, optionally limited to one category
+     *
+     * @param minPrice Lowest price to include, or null for no lower bound
+     * @param maxPrice Highest price to include, or null for no upper bound
+     * @param category Product category to filter by, or null for all categories
+     * @return List of matching products ordered by price
+     * @throws IllegalArgumentException if minPrice is greater than maxPrice
+     */
+    public List<Product> getProductsInPriceRange(Float minPrice, Float maxPrice, Category category) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException(
+                String.format("Minimum price %.2f USD is greater than maximum price %.2f USD",
+                    minPrice, maxPrice)
+            );
+        }
+        return productRepository.findByPriceRange(minPrice, maxPrice, category);
+    }
+
+    /**
+     * Check a product's price against the threshold
+     *
+     * @return Error message if the price is not a number, infinite or too high, null otherwise
+     */
+    private String checkPrice(Product product) {
+        if (!Float.isFinite(product.getPrice())) {
+            return "Product price must be a finite number, not " + product.getPrice();
+        }
+        if (product.getPrice() > PRICE_THRESHOLD) {
+            return String.format("Product price %.2f USD exceeds maximum allowed price %.2f USD",
+                product.getPrice(), PRICE_THRESHOLD);
+        }
+        return null;
+    }
+
+    /**
+     * Check everything that could make saving a batch item fail, so a batch
+     * never stops partway through applying its items
+     *
+     * @return Error message if the product cannot be saved, null otherwise
+     */
+    private String checkBatchItem(Product product) {
+        String priceError = checkPrice(product);
+        if (priceError != null) {
+            return priceError;
+        }
+        if (productRepository.isTooLargeToStore(product)) {
+            return "Product is too large to store";
+        }
+        return null;
+    }
+
+    /**
+     * Mark the valid items NOT_APPLIED if any item of the batch failed
+     *
+     * @return true if every item succeeded and the batch can be applied
+     */
+    private boolean allSucceeded(List<BatchItemResult> results) {
+        boolean succeeded = results.stream()
+            .noneMatch(result -> result.getStatus() == Status.INVALID || result.getStatus() == Status.NOT_FOUND);
+        if (!succeeded) {
+            results.stream()
+                .filter(result -> result.getStatus() != Status.INVALID && result.getStatus() != Status.NOT_FOUND)
+                .forEach(result -> result.setStatus(Status.NOT_APPLIED));
+        }
+        return succeeded;
     }
-}
\ No newline at end of file
+}
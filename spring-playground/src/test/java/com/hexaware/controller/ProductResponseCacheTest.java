@@ -0,0 +1,100 @@
+package com.hexaware.controller;
+
+import com.hexaware.controller.ProductResponseCache.CachedResponse;
+import com.hexaware.model.Product;
+import com.hexaware.model.Product.Category;
+import com.hexaware.repository.ProductRepository;
+import com.hexaware.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ProductService productService;
+    private ProductResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        productService = new ProductService(new ProductRepository());
+        cache = new ProductResponseCache(productService, objectMapper);
+    }
+
+    @Test
+    void getProductById_keepsResponseUntilThatProductChanges() throws Exception {
+        CachedResponse first = cache.getProductById(1).orElseThrow();
+        CachedResponse other = cache.getProductById(2).orElseThrow();
+        assertSame(first, cache.getProductById(1).orElseThrow());
+
+        productService.updateProduct(new Product(1, "Desk Lamp", 35.0f, Category.FURNITURE, null));
+
+        CachedResponse updated = cache.getProductById(1).orElseThrow();
+        assertNotEquals(first.etag(), updated.etag());
+        assertEquals(35.0f, objectMapper.readValue(updated.body(), Product.class).getPrice());
+        assertSame(other, cache.getProductById(2).orElseThrow());
+        assertTrue(cache.getProductById(999).isEmpty());
+    }
+
+    @Test
+    void getProductById_returnsNotModifiedOnlyForCurrentTag() throws Exception {
+        ProductController controller = new ProductController(productService, cache, objectMapper);
+        ResponseEntity<byte[]> first = controller.getProductById(1, null);
+        String etag = first.getHeaders().getETag();
+
+        ResponseEntity<byte[]> unchanged = controller.getProductById(1, etag);
+        productService.updateProduct(new Product(1, "Desk Lamp", 35.0f, Category.FURNITURE, null));
+        ResponseEntity<byte[]> changed = controller.getProductById(1, etag);
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+        assertNull(unchanged.getBody());
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
+    @Test
+    void getAllProducts_returnsNotModifiedUntilAnyProductChanges() throws Exception {
+        ProductController controller = new ProductController(productService, cache, objectMapper);
+        String etag = controller.getAllProducts(null, null, null, null).getHeaders().getETag();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.getAllProducts(null, null, null, etag).getStatusCode());
+        productService.deleteProduct(20);
+        ResponseEntity<?> changed = controller.getAllProducts(null, null, null, etag);
+
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
+    @Test
+    void getProductById_neverTagsTwoBodiesTheSame() throws Exception {
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; !done.get(); i++) {
+                productService.updateProduct(new Product(1, "Desk Lamp", i % 100, Category.FURNITURE, null));
+            }
+        });
+        writer.start();
+        Map<String, byte[]> bodies = new HashMap<>();
+        try {
+            long end = System.nanoTime() + 1_000_000_000L;
+            while (System.nanoTime() < end) {
+                CachedResponse response = cache.getProductById(1).orElseThrow();
+                if (response.etag() != null) {
+                    byte[] seen = bodies.putIfAbsent(response.etag(), response.body());
+                    assertTrue(seen == null || Arrays.equals(seen, response.body()), "tag " + response.etag());
+                }
+            }
+        } finally {
+            done.set(true);
+            writer.join();
+        }
+    }
+}
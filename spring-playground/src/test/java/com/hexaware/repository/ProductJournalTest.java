@@ -0,0 +1,175 @@
+package com.hexaware.repository;
+
+import com.hexaware.model.Product;
+import com.hexaware.model.Product.Category;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductJournalTest {
+
+    @TempDir
+    Path directory;
+
+    // Products put and IDs deleted by the last replay, in log order
+    private final List<Object> replayed = new ArrayList<>();
+
+    @Test
+    void open_replaysPutsAndDeletesInOrder() throws IOException {
+        Product lamp = product(1, "Lamp", 10.5f, Category.FURNITURE);
+        Product unnamed = new Product(2, null, 20.0f, null, null);
+        try (ProductJournal journal = new ProductJournal(directory)) {
+            assertFalse(journal.open(replayed::add, replayed::add).existing());
+            ProductJournal.await(journal.logPut(lamp));
+            ProductJournal.await(journal.logPut(unnamed));
+            ProductJournal.await(journal.logDelete(1));
+        }
+
+        ProductJournal.Recovery recovery = reopen();
+
+        assertTrue(recovery.existing());
+        assertEquals(3, recovery.nextId());
+        assertReplayed(lamp, unnamed, 1);
+    }
+
+    @Test
+    void open_truncatesTornRecordAtTheEndOfTheLog() throws IOException {
+        Product lamp = product(1, "Lamp", 10.0f, Category.FURNITURE);
+        try (ProductJournal journal = new ProductJournal(directory)) {
+            journal.open(replayed::add, replayed::add);
+            ProductJournal.await(journal.logPut(lamp));
+        }
+        Path segment = onlySegment();
+        long intact = Files.size(segment);
+        // The frame of a 40 byte record whose payload never made it to disk
+        Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 1, 0}, StandardOpenOption.APPEND);
+
+        Product desk = product(2, "Desk", 20.0f, Category.FURNITURE);
+        try (ProductJournal journal = new ProductJournal(directory)) {
+            journal.open(replayed::add, replayed::add);
+            assertEquals(intact, Files.size(segment));
+            ProductJournal.await(journal.logPut(desk));
+        }
+
+        reopen();
+        assertReplayed(lamp, desk);
+    }
+
+    @Test
+    void open_failsOnCorruptRecordBeforeTheLastSegment() throws IOException {
+        try (ProductJournal journal = new ProductJournal(directory)) {
+            journal.open(replayed::add, replayed::add);
+            ProductJournal.await(journal.logPut(product(1, "Lamp", 10.0f, Category.FURNITURE)));
+            ProductJournal.await(journal.logPut(product(2, "Desk", 20.0f, Category.FURNITURE)));
+            journal.rotate();
+            ProductJournal.await(journal.logPut(product(3, "Sofa", 30.0f, Category.FURNITURE)));
+        }
+        Path first = segments().get(0);
+        // Flip a payload byte of the first record
+        try (FileChannel channel = FileChannel.open(first, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, 10);
+            value.put(0, (byte) ~value.get(0)).rewind();
+            channel.write(value, 10);
+        }
+
+        assertThrows(IOException.class, () -> new ProductJournal(directory).open(replayed::add, replayed::add));
+    }
+
+    @Test
+    void writeSnapshot_replacesTheSegmentsItCovers() throws IOException {
+        Product lamp = product(1, "Lamp", 10.0f, Category.FURNITURE);
+        Product desk = product(2, "Desk", 20.0f, Category.FURNITURE);
+        Product sofa = product(3, "Sofa", 30.0f, Category.FURNITURE);
+        try (ProductJournal journal = new ProductJournal(directory)) {
+            journal.open(replayed::add, replayed::add);
+            ProductJournal.await(journal.logPut(lamp));
+            ProductJournal.await(journal.logPut(desk));
+            Path covered = onlySegment();
+
+            long generation = journal.rotate();
+            ProductJournal.await(journal.logPut(sofa));
+            journal.writeSnapshot(generation, List.of(lamp, desk), 3);
+
+            assertFalse(Files.exists(covered));
+            assertEquals(1, segments().size());
+            ProductJournal.await(journal.logDelete(1));
+        }
+
+        ProductJournal.Recovery recovery = reopen();
+
+        assertTrue(recovery.existing());
+        assertEquals(4, recovery.nextId());
+        assertReplayed(lamp, desk, sofa, 1);
+    }
+
+    @Test
+    void open_recoversNextIdFromSnapshotAndDeletes() throws IOException {
+        try (ProductJournal journal = new ProductJournal(directory)) {
+            journal.open(replayed::add, replayed::add);
+            // IDs up to 41 were handed out before the snapshot, even though only product 1 is left
+            journal.writeSnapshot(journal.rotate(), List.of(product(1, "Lamp", 10.0f, Category.FURNITURE)), 42);
+        }
+        assertEquals(42, reopen().nextId());
+
+        try (ProductJournal journal = new ProductJournal(directory)) {
+            journal.open(replayed::add, replayed::add);
+            ProductJournal.await(journal.logPut(product(50, "Desk", 20.0f, Category.FURNITURE)));
+            ProductJournal.await(journal.logDelete(50));
+        }
+        assertEquals(51, reopen().nextId());
+    }
+
+    @Test
+    void logPut_failsAtOnceAfterClose() throws IOException {
+        ProductJournal journal = new ProductJournal(directory);
+        journal.open(replayed::add, replayed::add);
+        journal.close();
+        journal.close();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(IOException.class,
+                    () -> ProductJournal.await(journal.logPut(product(1, "Lamp", 10.0f, Category.FURNITURE))));
+            assertThrows(IOException.class, () -> ProductJournal.await(journal.logDelete(1)));
+        });
+    }
+
+    private ProductJournal.Recovery reopen() throws IOException {
+        replayed.clear();
+        try (ProductJournal journal = new ProductJournal(directory)) {
+            return journal.open(replayed::add, replayed::add);
+        }
+    }
+
+    // Products compare by ID alone, so compare every field through toString
+    private void assertReplayed(Object... expected) {
+        assertEquals(List.of(expected).toString(), replayed.toString());
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segments();
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+
+    private static Product product(int id, String name, float price, Category category) {
+        return new Product(id, name, price, category, LocalDateTime.of(2025, 3, 1, 12, 30, 15, 500));
+    }
+}
@@ -0,0 +1,182 @@
+package com.hexaware.repository;
+
+import com.hexaware.model.CategoryStatistics;
+import com.hexaware.model.Product;
+import com.hexaware.model.Product.Category;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductRepositoryTest {
+
+    private ProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ProductRepository();
+        // Start from an empty catalogue rather than the seed products
+        repository.findAll().forEach(product -> repository.deleteById(product.getId()));
+    }
+
+    @Test
+    void findByPriceRange_includesBothEnds() {
+        save("Lamp", 10.0f, Category.FURNITURE);
+        Product low = save("Chair", 20.0f, Category.FURNITURE);
+        Product high = save("Speaker", 30.0f, Category.ELECTRONICS);
+        save("Desk", 40.0f, Category.FURNITURE);
+
+        List<Product> result = repository.findByPriceRange(20.0f, 30.0f, null);
+
+        assertEquals(List.of(low, high), result);
+    }
+
+    @Test
+    void findByPriceRange_ordersEqualPricesById() {
+        Product first = save("Stool", 25.0f, Category.FURNITURE);
+        Product second = save("Cable", 25.0f, Category.ELECTRONICS);
+        Product third = save("Shelf", 25.0f, Category.FURNITURE);
+        Product cheaper = save("Hook", 5.0f, Category.FURNITURE);
+
+        assertEquals(List.of(first, second, third), repository.findByPriceRange(25.0f, 25.0f, null));
+        assertEquals(List.of(cheaper, first, third), repository.findByPriceRange(null, null, Category.FURNITURE));
+    }
+
+    @Test
+    void findByPriceRange_appliesOpenBoundsAndCategory() {
+        Product lamp = save("Lamp", 10.0f, Category.FURNITURE);
+        Product mouse = save("Mouse", 15.0f, Category.ELECTRONICS);
+        Product desk = save("Desk", 40.0f, Category.FURNITURE);
+
+        assertEquals(List.of(lamp, mouse), repository.findByPriceRange(null, 15.0f, null));
+        assertEquals(List.of(mouse, desk), repository.findByPriceRange(15.0f, null, null));
+        assertEquals(List.of(desk), repository.findByPriceRange(15.0f, null, Category.FURNITURE));
+        assertTrue(repository.findByPriceRange(40.1f, null, null).isEmpty());
+        assertTrue(repository.findByPriceRange(30.0f, 20.0f, null).isEmpty());
+    }
+
+    @Test
+    void save_reindexesWhenPriceAndCategoryChange() {
+        Product original = save("Lamp", 10.0f, Category.FURNITURE);
+
+        Product updated = repository.save(new Product(original.getId(), "Lamp", 50.0f, Category.ELECTRONICS, null));
+
+        assertTrue(repository.findByPriceRange(5.0f, 15.0f, null).isEmpty());
+        assertTrue(repository.filterByCategory(Category.FURNITURE).isEmpty());
+        assertEquals(List.of(updated), repository.findByPriceRange(45.0f, 55.0f, Category.ELECTRONICS));
+    }
+
+    @Test
+    void save_reindexesProductModifiedInPlace() {
+        Product product = save("Oak Table", 10.0f, Category.FURNITURE);
+        Product other = save("Pine Table", 60.0f, Category.FURNITURE);
+
+        product.setPrice(50.0f);
+        product.setCategory(Category.ELECTRONICS);
+        product.setName("Smart Speaker");
+        repository.save(product);
+
+        assertTrue(repository.findByPriceRange(5.0f, 15.0f, null).isEmpty());
+        assertEquals(List.of(other), repository.filterByCategory(Category.FURNITURE));
+        assertEquals(List.of(product), repository.findByPriceRange(45.0f, 55.0f, Category.ELECTRONICS));
+        assertTrue(repository.search("oak", 10).isEmpty());
+        assertEquals(List.of(product), repository.search("speaker", 10));
+
+        assertTrue(repository.deleteById(product.getId()));
+        assertEquals(List.of(other), repository.findByPriceRange(null, null, null));
+    }
+
+    @Test
+    void isUnchangedSince_turnsFalseOnceAWriteHasStarted() {
+        long version = repository.getVersion();
+        assertTrue(repository.isUnchangedSince(version));
+
+        assertFalse(repository.deleteById(999));
+        assertTrue(repository.isUnchangedSince(version));
+        Product product = save("Lamp", 10.0f, Category.FURNITURE);
+
+        assertFalse(repository.isUnchangedSince(version));
+        assertTrue(repository.isUnchangedSince(repository.getVersion()));
+        repository.deleteById(product.getId());
+        assertEquals(version + 2, repository.getVersion());
+    }
+
+    @Test
+    void constructor_recoversProductsFromStorageDirectory(@TempDir Path directory) throws Exception {
+        ProductRepository stored = new ProductRepository(directory.toString());
+        Product lamp = stored.save(new Product(null, "Lamp", 10.0f, Category.FURNITURE, null));
+        stored.save(new Product(2, "Gaming Chair", 89.99f, Category.FURNITURE, null));
+        stored.deleteById(1);
+        String before = stored.findAll().toString();
+        stored.close();
+
+        ProductRepository recovered = new ProductRepository(directory.toString());
+        try {
+            assertEquals(before, recovered.findAll().toString());
+            assertEquals(lamp.getId() + 1, recovered.save(new Product(null, "Desk", 20.0f, Category.FURNITURE, null)).getId());
+            assertEquals(List.of(lamp), recovered.findByPriceRange(10.0f, 10.0f, Category.FURNITURE));
+        } finally {
+            recovered.close();
+        }
+    }
+
+    @Test
+    void getCategoryStatistics_keepsEndsAfterDeletingOneOfTwoEqualPrices() {
+        Product first = save("Lamp", 10.0f, Category.FURNITURE);
+        save("Stool", 10.0f, Category.FURNITURE);
+        save("Desk", 40.0f, Category.FURNITURE);
+        Product top = save("Wardrobe", 40.0f, Category.FURNITURE);
+
+        repository.deleteById(first.getId());
+        repository.deleteById(top.getId());
+        CategoryStatistics furniture = repository.getCategoryStatistics().get(0);
+
+        assertEquals(Category.FURNITURE, furniture.getCategory());
+        assertEquals(2, furniture.getCount());
+        assertEquals(10.0f, furniture.getMinPrice());
+        assertEquals(40.0f, furniture.getMaxPrice());
+        assertEquals(25.0, furniture.getAveragePrice());
+        assertEquals(50.0, furniture.getTotalPrice());
+    }
+
+    @Test
+    void getCategoryStatistics_reportsEmptyCategory() {
+        Product speaker = save("Speaker", 30.0f, Category.ELECTRONICS);
+        repository.deleteById(speaker.getId());
+
+        CategoryStatistics electronics = repository.getCategoryStatistics().get(1);
+
+        assertEquals(Category.ELECTRONICS, electronics.getCategory());
+        assertEquals(0, electronics.getCount());
+        assertNull(electronics.getMinPrice());
+        assertNull(electronics.getMaxPrice());
+        assertNull(electronics.getAveragePrice());
+        assertEquals(0.0, electronics.getTotalPrice());
+    }
+
+    @Test
+    void save_rejectsNonFinitePriceWithoutChangingAnything() {
+        Product lamp = save("Lamp", 10.0f, Category.FURNITURE);
+        long version = repository.getVersion();
+
+        for (float price : new float[] {Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY}) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> repository.save(new Product(lamp.getId(), "Lamp", price, Category.ELECTRONICS, null)));
+            Product fresh = new Product(null, "Desk", price, Category.FURNITURE, null);
+            assertThrows(IllegalArgumentException.class, () -> repository.save(fresh));
+            assertNull(fresh.getId());
+        }
+
+        assertEquals(version, repository.getVersion());
+        assertEquals(List.of(lamp), repository.findAll());
+        assertEquals(List.of(lamp), repository.findByPriceRange(10.0f, 10.0f, Category.FURNITURE));
+        assertEquals(1, repository.getCategoryStatistics().get(0).getCount());
+        assertEquals(0, repository.getCategoryStatistics().get(1).getCount());
+    }
+
+    private Product save(String name, float price, Category category) {
+        return repository.save(new Product(null, name, price, category, null));
+    }
+}
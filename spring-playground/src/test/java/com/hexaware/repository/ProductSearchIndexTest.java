@@ -0,0 +1,104 @@
+package com.hexaware.repository;
+
+import com.hexaware.model.Product;
+import com.hexaware.model.Product.Category;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+    private final ConcurrentMap<Integer, Product> products = new ConcurrentHashMap<>();
+
+    @Test
+    void search_ranksExactMatchesAbovePrefixMatches() {
+        add(1, "Deskmate Organizer");
+        add(2, "Office Desk");
+        add(3, "Desk Lamp");
+
+        assertEquals(List.of(2, 3, 1), search("desk", 10));
+        assertEquals(List.of(1, 2, 3), search("des", 10));
+    }
+
+    @Test
+    void search_breaksTiesById() {
+        add(7, "Standing Desk");
+        add(3, "Corner Desk");
+        add(5, "Desk Organizer");
+        add(4, "Desktop Stand");
+        add(2, "Desktop Speaker");
+
+        assertEquals(List.of(3, 5, 7, 2, 4), search("desk", 10));
+    }
+
+    @Test
+    void search_cutsOffAtTheLimitAcrossBothTiers() {
+        add(10, "Desk Lamp");
+        add(11, "Office Desk");
+        add(1, "Desktop Stand");
+        add(2, "Desktops Bundle");
+        add(3, "Deskmate");
+
+        assertEquals(List.of(10), search("desk", 1));
+        assertEquals(List.of(10, 11), search("desk", 2));
+        assertEquals(List.of(10, 11, 1), search("desk", 3));
+        assertEquals(List.of(10, 11, 1, 2), search("desk", 4));
+        assertEquals(List.of(10, 11, 1, 2, 3), search("desk", 5));
+        assertEquals(List.of(10, 11, 1, 2, 3), search("desk", 100));
+    }
+
+    @Test
+    void search_scoresEveryQueryToken() {
+        add(1, "Coffee Tables");
+        add(2, "Coffee Table");
+        add(3, "Dining Table");
+
+        assertEquals(List.of(2, 1), search("table coffee", 10));
+        assertEquals(List.of(1), search("tables coff", 10));
+        assertTrue(search("table sofa", 10).isEmpty());
+    }
+
+    @Test
+    void remove_dropsOnlyTheGivenProduct() {
+        add(1, "Oak Desk");
+        add(2, "Oak Shelf");
+
+        index.remove(1, "Oak Desk");
+        products.remove(1);
+
+        assertEquals(List.of(2), search("oak", 10));
+        assertTrue(search("desk", 10).isEmpty());
+        assertTrue(search("de", 10).isEmpty());
+    }
+
+    @Test
+    void repositorySearch_followsRenamesAndDeletes() {
+        ProductRepository repository = new ProductRepository();
+        Product desk = repository.save(new Product(null, "Walnut Desk", 90.0f, Category.FURNITURE, null));
+        assertEquals(List.of(desk), repository.search("walnut", 10));
+
+        repository.save(new Product(desk.getId(), "Maple Shelf", 90.0f, Category.FURNITURE, null));
+
+        assertTrue(repository.search("walnut", 10).isEmpty());
+        assertTrue(repository.search("wal", 10).isEmpty());
+        assertEquals(List.of(desk.getId()), repository.search("maple", 10).stream().map(Product::getId).toList());
+
+        repository.deleteById(desk.getId());
+
+        assertTrue(repository.search("maple", 10).isEmpty());
+        assertTrue(repository.search("map", 10).isEmpty());
+    }
+
+    private void add(int id, String name) {
+        Product product = new Product(id, name, 10.0f, Category.FURNITURE, null);
+        products.put(id, product);
+        index.add(id, name);
+    }
+
+    private List<Integer> search(String query, int limit) {
+        return index.search(query, limit, products).stream().map(Product::getId).toList();
+    }
+}
@@ -1,15 +1,22 @@
 package com.hexaware.service;
 
+import com.hexaware.model.BatchItemResult;
+import com.hexaware.model.BatchItemResult.Status;
+import com.hexaware.model.CategoryStatistics;
 import com.hexaware.model.Product;
 import com.hexaware.model.Product.Category;
+import com.hexaware.model.ProductPage;
 import com.hexaware.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -147,22 +154,242 @@ class ProductServiceTest {
     }
 
     @Test
-    void getProductsBelowThreshold_filtersByPrice() {
-        Product p1 = mock(Product.class);
-        Product p2 = mock(Product.class);
-        Product p3 = mock(Product.class);
-        when(p1.getPrice()).thenReturn(50.0f);
-        when(p2.getPrice()).thenReturn(100.0f);
-        when(p3.getPrice()).thenReturn(150.0f);
-        when(productRepository.findAll()).thenReturn(List.of(p1, p2, p3));
+    void getProductsBelowThreshold_queriesPriceIndex() {
+        when(productRepository.findByPriceRange(null, 100.0f, null)).thenReturn(List.of(product));
         ProductService svc = new ProductService(productRepository);
 
         List<Product> result = svc.getProductsBelowThreshold();
 
-        assertEquals(2, result.size());
-        assertTrue(result.contains(p1));
-        assertTrue(result.contains(p2));
-        assertFalse(result.contains(p3));
-        verify(productRepository).findAll();
+        assertEquals(List.of(product), result);
+        verify(productRepository).findByPriceRange(null, 100.0f, null);
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void getProductsInPriceRange_delegatesToRepository() {
+        when(productRepository.findByPriceRange(10.0f, 50.0f, Category.FURNITURE)).thenReturn(List.of(product));
+        ProductService svc = new ProductService(productRepository);
+
+        List<Product> result = svc.getProductsInPriceRange(10.0f, 50.0f, Category.FURNITURE);
+
+        assertEquals(List.of(product), result);
+        verify(productRepository).findByPriceRange(10.0f, 50.0f, Category.FURNITURE);
+    }
+
+    @Test
+    void getProductsInPriceRange_throwsWhenMinAboveMax() {
+        ProductService svc = new ProductService(productRepository);
+
+        assertThrows(IllegalArgumentException.class, () -> svc.getProductsInPriceRange(60.0f, 50.0f, null));
+        verify(productRepository, never()).findByPriceRange(any(), any(), any());
+    }
+
+    @Test
+    void getProductPage_returnsCursorWhenMoreProductsFollow() {
+        Product last = mock(Product.class);
+        when(last.getId()).thenReturn(7);
+        when(productRepository.findPage(3, 3)).thenReturn(List.of(product, last, existingProduct));
+        ProductService svc = new ProductService(productRepository);
+
+        ProductPage page = svc.getProductPage(3, 2);
+
+        assertEquals(List.of(product, last), page.getProducts());
+        assertEquals(7, page.getNextCursor());
+    }
+
+    @Test
+    void getProductPage_returnsNoCursorOnLastPage() {
+        when(productRepository.findPage(null, 3)).thenReturn(List.of(product));
+        ProductService svc = new ProductService(productRepository);
+
+        ProductPage page = svc.getProductPage(null, 2);
+
+        assertEquals(List.of(product), page.getProducts());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getProductPage_throwsWhenLimitOutOfRange() {
+        ProductService svc = new ProductService(productRepository);
+
+        assertThrows(IllegalArgumentException.class, () -> svc.getProductPage(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> svc.getProductPage(null, 1001));
+        verify(productRepository, never()).findPage(any(), anyInt());
+    }
+
+    @Test
+    void getCatalogueVersion_returnsRepositoryVersion() {
+        when(productRepository.getVersion()).thenReturn(42L);
+        ProductService svc = new ProductService(productRepository);
+
+        long version = svc.getCatalogueVersion();
+
+        assertEquals(42L, version);
+        verify(productRepository).getVersion();
+    }
+
+    @Test
+    void addProduct_throwsWhenPriceNotFinite() {
+        ProductService svc = new ProductService(productRepository);
+
+        for (float price : new float[] {Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY}) {
+            when(product.getPrice()).thenReturn(price);
+            assertThrows(IllegalArgumentException.class, () -> svc.addProduct(product));
+        }
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void addProducts_savesNothingWhenAnyPriceExceedsThreshold() {
+        when(productRepository.applyBatch(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(product.getId()).thenReturn(null);
+        when(product.getPrice()).thenReturn(50.0f);
+        when(existingProduct.getId()).thenReturn(null);
+        when(existingProduct.getPrice()).thenReturn(150.0f);
+        ProductService svc = new ProductService(productRepository);
+
+        List<BatchItemResult> results = svc.addProducts(List.of(product, existingProduct));
+
+        assertEquals(Status.NOT_APPLIED, results.get(0).getStatus());
+        assertEquals(Status.INVALID, results.get(1).getStatus());
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void addProducts_rejectsProductsWithIds() {
+        when(productRepository.applyBatch(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(product.getId()).thenReturn(null);
+        when(product.getPrice()).thenReturn(50.0f);
+        when(existingProduct.getId()).thenReturn(3);
+        when(existingProduct.getPrice()).thenReturn(50.0f);
+        ProductService svc = new ProductService(productRepository);
+
+        List<BatchItemResult> results = svc.addProducts(List.of(product, existingProduct, existingProduct));
+
+        assertEquals(Status.NOT_APPLIED, results.get(0).getStatus());
+        assertEquals(Status.INVALID, results.get(1).getStatus());
+        assertEquals(Status.INVALID, results.get(2).getStatus());
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void addProducts_rejectsTheSameProductTwice() {
+        when(productRepository.applyBatch(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(product.getId()).thenReturn(null);
+        when(product.getPrice()).thenReturn(50.0f);
+        ProductService svc = new ProductService(productRepository);
+
+        List<BatchItemResult> results = svc.addProducts(List.of(product, product));
+
+        assertEquals(Status.NOT_APPLIED, results.get(0).getStatus());
+        assertEquals(Status.INVALID, results.get(1).getStatus());
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void addProducts_rejectsProductTooLargeToStore(@TempDir Path directory) throws Exception {
+        ProductRepository repository = new ProductRepository(directory.toString());
+        try {
+            ProductService svc = new ProductService(repository);
+            int count = repository.findAll().size();
+            long version = repository.getVersion();
+            // Over the 16 MiB log record limit
+            Product oversized = new Product(null, "x".repeat(17 << 20), 20.0f, Category.FURNITURE, null);
+            Product first = new Product(null, "Lamp", 10.0f, Category.FURNITURE, null);
+            Product last = new Product(null, "Stool", 30.0f, Category.FURNITURE, null);
+
+            List<BatchItemResult> results = svc.addProducts(List.of(first, oversized, last));
+
+            assertEquals(Status.NOT_APPLIED, results.get(0).getStatus());
+            assertEquals(Status.INVALID, results.get(1).getStatus());
+            assertEquals(Status.NOT_APPLIED, results.get(2).getStatus());
+            assertNull(first.getId());
+            assertEquals(count, repository.findAll().size());
+            assertEquals(version, repository.getVersion());
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    void updateProducts_updatesNothingWhenAnyProductTooLargeToStore() {
+        when(productRepository.applyBatch(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(product.getId()).thenReturn(1);
+        when(product.getPrice()).thenReturn(50.0f);
+        when(existingProduct.getId()).thenReturn(2);
+        when(existingProduct.getPrice()).thenReturn(50.0f);
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(productRepository.findById(2)).thenReturn(Optional.of(existingProduct));
+        when(productRepository.isTooLargeToStore(existingProduct)).thenReturn(true);
+        ProductService svc = new ProductService(productRepository);
+
+        List<BatchItemResult> results = svc.updateProducts(List.of(product, existingProduct));
+
+        assertEquals(Status.NOT_APPLIED, results.get(0).getStatus());
+        assertEquals(Status.INVALID, results.get(1).getStatus());
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void deleteProducts_deletesAllWhenAllExist() {
+        when(productRepository.applyBatch(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(productRepository.findById(2)).thenReturn(Optional.of(existingProduct));
+        ProductService svc = new ProductService(productRepository);
+
+        List<BatchItemResult> results = svc.deleteProducts(List.of(1, 2));
+
+        assertEquals(Status.DELETED, results.get(0).getStatus());
+        assertEquals(Status.DELETED, results.get(1).getStatus());
+        verify(productRepository).deleteById(1);
+        verify(productRepository).deleteById(2);
+    }
+
+    @Test
+    void updateProducts_updatesNothingWhenAnyProductMissing() {
+        when(productRepository.applyBatch(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(product.getId()).thenReturn(1);
+        when(product.getPrice()).thenReturn(50.0f);
+        when(existingProduct.getId()).thenReturn(2);
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
+        when(productRepository.findById(2)).thenReturn(Optional.empty());
+        ProductService svc = new ProductService(productRepository);
+
+        List<BatchItemResult> results = svc.updateProducts(List.of(product, existingProduct));
+
+        assertEquals(Status.NOT_APPLIED, results.get(0).getStatus());
+        assertEquals(Status.NOT_FOUND, results.get(1).getStatus());
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void searchProducts_delegatesToRepository() {
+        when(productRepository.search("gaming", 20)).thenReturn(List.of(product));
+        ProductService svc = new ProductService(productRepository);
+
+        List<Product> result = svc.searchProducts("gaming", 20);
+
+        assertEquals(List.of(product), result);
+        verify(productRepository).search("gaming", 20);
+    }
+
+    @Test
+    void searchProducts_throwsWhenQueryBlank() {
+        ProductService svc = new ProductService(productRepository);
+
+        assertThrows(IllegalArgumentException.class, () -> svc.searchProducts("  ", 20));
+        verify(productRepository, never()).search(any(), anyInt());
+    }
+
+    @Test
+    void getCategoryStatistics_returnsRepositoryStatistics() {
+        CategoryStatistics furniture = new CategoryStatistics(Category.FURNITURE, 2, 10.0f, 30.0f, 20.0, 40.0);
+        when(productRepository.getCategoryStatistics()).thenReturn(List.of(furniture));
+        ProductService svc = new ProductService(productRepository);
+
+        List<CategoryStatistics> statistics = svc.getCategoryStatistics();
+
+        assertEquals(List.of(furniture), statistics);
+        verify(productRepository).getCategoryStatistics();
     }
-}
\ No newline at end of file
+}